@@ -0,0 +1,73 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one player step through {@link TileCollider} and {@link TriggerIndex} on maps of growing size.
+ * The box follows a seeded random walk over a pillar map with traps on a tenth of the free tiles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollisionBenchmark {
+    private static final float STEP = MazeEngine.PLAYER_SPEED / FixedTimestep.DEFAULT_TICK_RATE;
+    private static final float SIZE = MazeEngine.PLAYER_SIZE;
+    // Steps one random direction is held for
+    private static final int HOLD_STEPS = 30;
+
+    @Param({"64", "1024", "4096"})
+    public int mapSize;
+
+    private TileCollider collider;
+    private TriggerIndex triggers;
+    private final int[] found = new int[4];
+    private final float[] directionX = new float[1024];
+    private final float[] directionY = new float[1024];
+    private float x, y;
+    private int step;
+
+    @Setup
+    public void setup() {
+        TileMap tileMap = SyntheticMaps.pillarMap(mapSize, 0, 42);
+        Random random = new Random(42);
+        byte[] tiles = tileMap.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == TileMap.EMPTY && random.nextInt(10) == 0) {
+                tiles[i] = TileMap.TRAP;
+            }
+        }
+        collider = new TileCollider((tileX, tileY) -> !tileMap.isInside(tileX, tileY) || tileMap.get(tileX, tileY) == TileMap.WALL);
+        triggers = new TriggerIndex(tileMap);
+        for (int i = 0; i < directionX.length; i++) {
+            directionX[i] = random.nextInt(3) - 1;
+            directionY[i] = random.nextInt(3) - 1;
+        }
+        x = mapSize / 2f + 0.1f;
+        y = mapSize / 2f + 0.1f;
+    }
+
+    @Benchmark
+    public int step() {
+        int direction = (step++ / HOLD_STEPS) & (directionX.length - 1);
+        collider.move(x, y, SIZE, SIZE, directionX[direction] * STEP, directionY[direction] * STEP);
+        x = collider.getX();
+        y = collider.getY();
+        return triggers.query(x, y, SIZE, SIZE, found);
+    }
+}
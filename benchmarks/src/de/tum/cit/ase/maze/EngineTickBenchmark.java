@@ -0,0 +1,64 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many {@link MazeEngine} steps run per second without a GL context.
+ * The player follows a seeded random walk; the level restarts whenever it is won or lost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineTickBenchmark {
+    private static final float TICK_SECONDS = 1f / FixedTimestep.DEFAULT_TICK_RATE;
+    // Ticks one random direction is held for
+    private static final int HOLD_TICKS = 30;
+
+    @Param({"maps/level-1.properties", "maps/level-4.properties"})
+    public String path;
+
+    private TileMap tileMap;
+    private MazeEngine engine;
+    private final int[] inputs = new int[1024];
+    private int tick;
+
+    @Setup
+    public void setup() throws IOException {
+        tileMap = MapParser.parse(ByteBuffer.wrap(Files.readAllBytes(Path.of(path))));
+        engine = new MazeEngine(tileMap);
+        Random random = new Random(42);
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = random.nextInt(16);
+        }
+    }
+
+    @Benchmark
+    public MazeEngine tick() {
+        if (engine.getState() != MazeEngine.State.PLAYING) {
+            engine = new MazeEngine(tileMap);
+        }
+        engine.setInput(inputs[(tick++ / HOLD_TICKS) & (inputs.length - 1)]);
+        engine.tick(TICK_SECONDS);
+        return engine;
+    }
+}
@@ -0,0 +1,134 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enemy steps per second with one {@link GameObject} per enemy in a list, as the game objects are kept,
+ * against the parallel arrays of the {@link EntityStore} the engine uses, on one thread and split across the
+ * common pool. Both move the same enemies by the same rule along a {@link FlowField}; the list is shuffled,
+ * as it would be after a while of adding and removing. The field switches between two targets now and then,
+ * so the enemies keep walking instead of piling up on one tile.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityBenchmark {
+    private static final float STEP = MazeEngine.ENEMY_SPEED / FixedTimestep.DEFAULT_TICK_RATE;
+    private static final float OFFSET = (1 - MazeEngine.ENEMY_SIZE) / 2;
+    private static final int MAP_SIZE = 1024;
+    // Steps until the field switches to the other target
+    private static final int TARGET_STEPS = 1024;
+
+    /**
+     * The list layout: an object per enemy with its fields next to the object header.
+     */
+    static class Enemy extends GameObject {
+        float previousX, previousY;
+        int targetX, targetY;
+
+        Enemy(int tileX, int tileY) {
+            super(null, 0, 0);
+            // In tiles like the engine, not in pixels
+            x = tileX + OFFSET;
+            y = tileY + OFFSET;
+            targetX = tileX;
+            targetY = tileY;
+        }
+
+        void step(FlowField flowField, float step) {
+            previousX = x;
+            previousY = y;
+            float dx = targetX + OFFSET - x;
+            float dy = targetY + OFFSET - y;
+            float distance = Math.abs(dx) + Math.abs(dy);
+            if (distance <= step) {
+                x = targetX + OFFSET;
+                y = targetY + OFFSET;
+                int direction = flowField.getDirection(targetX, targetY);
+                if (direction != FlowField.NONE) {
+                    targetX += FlowField.offsetX(direction);
+                    targetY += FlowField.offsetY(direction);
+                }
+            } else {
+                x += dx / distance * step;
+                y += dy / distance * step;
+            }
+        }
+    }
+
+    @Param({"1000", "16384", "131072"})
+    public int count;
+
+    private final FlowField[] flowFields = new FlowField[2];
+    private final List<Enemy> objects = new ArrayList<>();
+    private EntityStore sequential, parallel;
+    private int steps;
+
+    @Setup
+    public void setup() {
+        TileMap tileMap = SyntheticMaps.pillarMap(MAP_SIZE, count, 42);
+        for (int i = 0; i < flowFields.length; i++) {
+            flowFields[i] = new FlowField(tileMap, MAP_SIZE);
+            flowFields[i].update(MAP_SIZE / 4 + i * MAP_SIZE / 2 + 1, MAP_SIZE / 2 + 1);
+        }
+        sequential = new EntityStore(count);
+        sequential.setParallelThreshold(Integer.MAX_VALUE);
+        parallel = new EntityStore(count);
+        parallel.setParallelThreshold(0);
+        objects.clear();
+        for (int y = 0; y < MAP_SIZE; y++) {
+            for (int x = 0; x < MAP_SIZE; x++) {
+                if (tileMap.get(x, y) == TileMap.ENEMY) {
+                    objects.add(new Enemy(x, y));
+                    sequential.add(TileMap.ENEMY, x, y);
+                    parallel.add(TileMap.ENEMY, x, y);
+                }
+            }
+        }
+        Collections.shuffle(objects, new Random(42));
+    }
+
+    private FlowField nextField() {
+        return flowFields[(steps++ / TARGET_STEPS) & 1];
+    }
+
+    @Benchmark
+    public List<Enemy> objects() {
+        FlowField flowField = nextField();
+        for (int i = 0; i < objects.size(); i++) {
+            objects.get(i).step(flowField, STEP);
+        }
+        return objects;
+    }
+
+    @Benchmark
+    public EntityStore store() {
+        sequential.moveEnemies(nextField(), STEP);
+        return sequential;
+    }
+
+    @Benchmark
+    public EntityStore storeParallel() {
+        parallel.moveEnemies(nextField(), STEP);
+        return parallel;
+    }
+}
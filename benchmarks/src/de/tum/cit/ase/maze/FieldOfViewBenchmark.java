@@ -0,0 +1,75 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the fog of war per view radius. {@code recompute} moves the viewer to another free tile on every call,
+ * so each call clears the old visible tiles and casts the shadows again; {@code sameTile} is the usual frame,
+ * where the player stays on its tile and nothing is recomputed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FieldOfViewBenchmark {
+    private static final int VIEWPOINTS = 1024;
+
+    @Param({"maps/level-4.properties", "synthetic-1024"})
+    public String path;
+
+    @Param({"4", "8", "16", "32"})
+    public int radius;
+
+    private FieldOfView fieldOfView;
+    private int[] viewpointX, viewpointY;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        TileMap tileMap = SyntheticMaps.load(path);
+        fieldOfView = new FieldOfView(tileMap, radius);
+        // Random free tiles, the same ones on every run
+        viewpointX = new int[VIEWPOINTS];
+        viewpointY = new int[VIEWPOINTS];
+        Random random = new Random(42);
+        int count = 0;
+        while (count < VIEWPOINTS) {
+            int x = random.nextInt(tileMap.getWidth());
+            int y = random.nextInt(tileMap.getHeight());
+            if (!FieldOfView.isOpaque(tileMap.get(x, y))) {
+                viewpointX[count] = x;
+                viewpointY[count] = y;
+                count++;
+            }
+        }
+    }
+
+    @Benchmark
+    public FieldOfView recompute() {
+        next = (next + 1) % VIEWPOINTS;
+        fieldOfView.update(viewpointX[next], viewpointY[next]);
+        return fieldOfView;
+    }
+
+    @Benchmark
+    public FieldOfView sameTile() {
+        fieldOfView.update(viewpointX[next], viewpointY[next]);
+        return fieldOfView;
+    }
+}
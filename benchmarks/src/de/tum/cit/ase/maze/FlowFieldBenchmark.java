@@ -0,0 +1,102 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one simulation step with a growing number of chasing enemies.
+ * {@code flowField} is the engine: one field update per player tile change plus one lookup per enemy.
+ * {@code searchPerEnemy} is the baseline of one breadth-first search from every enemy to the player.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowFieldBenchmark {
+    private static final int SIZE = 128;
+    private static final float TICK_SECONDS = 1f / FixedTimestep.DEFAULT_TICK_RATE;
+    // The player turns around this often, so it keeps entering new tiles
+    private static final int TURN_TICKS = 60;
+    private static final int[] NEIGHBOURS = {1, -1, SIZE, -SIZE};
+
+    @Param({"10", "100", "1000", "10000"})
+    public int enemies;
+
+    private TileMap tileMap;
+    private MazeEngine engine;
+    private int tick;
+    private int[] enemyTiles;
+    private int[] distances;
+    private int[] queue;
+
+    @Setup
+    public void setup() {
+        tileMap = SyntheticMaps.pillarMap(SIZE, enemies, 42);
+        engine = new MazeEngine(tileMap);
+        engine.setInvincible(true);
+        enemyTiles = new int[enemies];
+        int count = 0;
+        for (int i = 0; i < tileMap.getTiles().length; i++) {
+            if (tileMap.getTiles()[i] == TileMap.ENEMY) {
+                enemyTiles[count++] = i;
+            }
+        }
+        distances = new int[SIZE * SIZE];
+        queue = new int[SIZE * SIZE];
+    }
+
+    @Benchmark
+    public MazeEngine flowField() {
+        engine.setInput((tick++ / TURN_TICKS & 1) == 0 ? MazeEngine.INPUT_RIGHT : MazeEngine.INPUT_LEFT);
+        engine.tick(TICK_SECONDS);
+        return engine;
+    }
+
+    @Benchmark
+    public int searchPerEnemy() {
+        int target = (int) (engine.getPlayerY() + 0.5f) * SIZE + (int) (engine.getPlayerX() + 0.5f);
+        int total = 0;
+        for (int start : enemyTiles) {
+            total += search(start, target);
+        }
+        return total;
+    }
+
+    // Plain grid breadth-first search with preallocated buffers, the per-enemy baseline
+    private int search(int start, int target) {
+        Arrays.fill(distances, -1);
+        byte[] tiles = tileMap.getTiles();
+        distances[start] = 0;
+        queue[0] = start;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int cell = queue[head++];
+            if (cell == target) {
+                return distances[cell];
+            }
+            // The border is all walls, so neighbours of walkable tiles never wrap around a row
+            for (int offset : NEIGHBOURS) {
+                int next = cell + offset;
+                if (distances[next] < 0 && TileMap.isWalkable(tiles[next])) {
+                    distances[next] = distances[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+}
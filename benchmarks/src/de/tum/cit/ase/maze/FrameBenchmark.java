@@ -0,0 +1,73 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-frame work of {@link GameScreen} that does not touch GL: following the player with the camera
+ * and selecting the visible chunks of game objects. The player target moves along a seeded random walk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrameBenchmark {
+    // Visible world size at the game's default zoom on a 1920x1080 window
+    private static final float VIEW_WIDTH = 1920 * 0.4f;
+    private static final float VIEW_HEIGHT = 1080 * 0.4f;
+
+    @Param({"maps/level-1.properties", "synthetic-1024"})
+    public String path;
+
+    private final CameraFollower cameraFollower = new CameraFollower();
+    private ChunkGrid gameObjects;
+    private final float[] targetX = new float[1024];
+    private final float[] targetY = new float[1024];
+    private int frame;
+
+    @Setup
+    public void setup() throws IOException {
+        TileMap tileMap = SyntheticMaps.load(path);
+        gameObjects = new LevelScene(tileMap, new TextureRegion(), new TextureRegion()).getGameObjects();
+        float width = tileMap.getWidth() * GameObject.TILE_SIZE;
+        float height = tileMap.getHeight() * GameObject.TILE_SIZE;
+        cameraFollower.setBounds(width, height);
+        cameraFollower.reset(width / 2, height / 2);
+        Random random = new Random(42);
+        for (int i = 0; i < targetX.length; i++) {
+            targetX[i] = random.nextFloat() * width;
+            targetY[i] = random.nextFloat() * height;
+        }
+    }
+
+    @Benchmark
+    public float camera() {
+        int target = frame++ & (targetX.length - 1);
+        cameraFollower.follow(targetX[target], targetY[target]);
+        return cameraFollower.getX(0.5f) + cameraFollower.getY(0.5f);
+    }
+
+    @Benchmark
+    public int visibility() {
+        int target = frame++ & (targetX.length - 1);
+        float x = targetX[target], y = targetY[target];
+        gameObjects.setView(x - VIEW_WIDTH / 2, y - VIEW_HEIGHT / 2, x + VIEW_WIDTH / 2, y + VIEW_HEIGHT / 2);
+        return gameObjects.countVisible();
+    }
+}
@@ -0,0 +1,95 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link MapParser} and the binary {@link BinaryMapFormat} with the old
+ * Properties based loader. All of them read from memory, so only decoding and grid building are measured.
+ * Besides the shipped levels, a generated 1024x1024 map shows how loading scales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapLoadBenchmark {
+
+    @Param({"maps/level-1.properties", "maps/level-2.properties", "maps/level-3.properties",
+            "maps/level-4.properties", "maps/level-5.properties", "synthetic-1024"})
+    public String path;
+
+    private byte[] content;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws IOException {
+        content = Files.readAllBytes(SyntheticMaps.file(path));
+        binary = BinaryMapFormat.write(MapParser.parse(ByteBuffer.wrap(content)), true).array();
+    }
+
+    @Benchmark
+    public TileMap streamingParser() throws IOException {
+        return MapParser.parse(ByteBuffer.wrap(content));
+    }
+
+    @Benchmark
+    public TileMap binaryFormat() throws IOException {
+        return BinaryMapFormat.read(ByteBuffer.wrap(binary));
+    }
+
+    @Benchmark
+    public int[][] propertiesLoader() throws IOException {
+        Properties data = new Properties();
+        data.load(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8));
+        return loadFromProperties(data);
+    }
+
+    // The loader Maps used before MapParser, kept here as the baseline
+    private static int[][] loadFromProperties(Properties data) {
+        int maxX = data.stringPropertyNames().stream()
+                .mapToInt(coord -> Integer.parseInt(coord.split(",")[0]))
+                .max()
+                .orElse(0);
+
+        int maxY = data.stringPropertyNames().stream()
+                .mapToInt(coord -> Integer.parseInt(coord.split(",")[1]))
+                .max()
+                .orElse(0);
+
+        int[][] mazeData = new int[maxX + 1][maxY + 1];
+        for (int i = 0; i <= maxX; i++) {
+            for (int j = 0; j <= maxY; j++) {
+                mazeData[i][j] = TileMap.EMPTY;
+            }
+        }
+
+        data.forEach((key, value) -> {
+            String[] coordinates = key.toString().split(",");
+            int x = Integer.parseInt(coordinates[0]);
+            int y = Integer.parseInt(coordinates[1]);
+            mazeData[x][y] = Integer.parseInt(value.toString());
+        });
+
+        return mazeData;
+    }
+}
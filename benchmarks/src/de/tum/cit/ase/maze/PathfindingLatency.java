@@ -0,0 +1,116 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Prints build time and query latency percentiles of the {@link HierarchicalPathfinder} on the shipped
+ * levels and on generated large maps, next to a plain grid search for comparison.
+ * Queries go between random walkable tiles; the second pass repeats them and is served from the cache.
+ */
+public class PathfindingLatency {
+    private static final int QUERIES = 2000;
+    private static final int GRID_QUERIES = 20;
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-20s %8s %8s %10s %10s %10s %10s %10s%n",
+                "map", "build", "nodes", "p50", "p90", "p99", "cached p99", "grid p50");
+        for (int level = 1; level <= 5; level++) {
+            Path path = Path.of("maps/level-" + level + ".properties");
+            report(path.getFileName().toString(), MapParser.parse(ByteBuffer.wrap(Files.readAllBytes(path))));
+        }
+        report("generated 1024x1024", SyntheticMaps.caveMap(1024, 42));
+        report("generated 4096x4096", SyntheticMaps.caveMap(4096, 42));
+    }
+
+    private static void report(String name, TileMap tileMap) {
+        long start = System.nanoTime();
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(tileMap, HierarchicalPathfinder.DEFAULT_CLUSTER_SIZE, QUERIES);
+        long build = System.nanoTime() - start;
+
+        // A first round on other tiles warms up the JIT, then the measured queries start from a clean state
+        runQueries(pathfinder, tileMap, randomPairs(tileMap, QUERIES, 3));
+        pathfinder.clearCache();
+        pathfinder.resetLatencies();
+        int[] pairs = randomPairs(tileMap, QUERIES, 7);
+        runQueries(pathfinder, tileMap, pairs);
+        long p50 = pathfinder.getLatencyPercentile(50);
+        long p90 = pathfinder.getLatencyPercentile(90);
+        long p99 = pathfinder.getLatencyPercentile(99);
+        pathfinder.resetLatencies();
+        runQueries(pathfinder, tileMap, pairs);
+        long cachedP99 = pathfinder.getLatencyPercentile(99);
+
+        long[] grid = new long[GRID_QUERIES];
+        for (int i = 0; i < GRID_QUERIES; i++) {
+            long begin = System.nanoTime();
+            gridSearch(tileMap, pairs[2 * i], pairs[2 * i + 1]);
+            grid[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(grid);
+        System.out.printf("%-20s %8s %8d %10s %10s %10s %10s %10s%n", name, format(build), pathfinder.getNodeCount(),
+                format(p50), format(p90), format(p99), format(cachedP99), format(grid[GRID_QUERIES / 2]));
+    }
+
+    private static void runQueries(HierarchicalPathfinder pathfinder, TileMap tileMap, int[] pairs) {
+        int width = tileMap.getWidth();
+        for (int i = 0; i < pairs.length; i += 2) {
+            pathfinder.findPath(pairs[i] % width, pairs[i] / width, pairs[i + 1] % width, pairs[i + 1] / width);
+        }
+    }
+
+    private static int[] randomPairs(TileMap tileMap, int count, long seed) {
+        Random random = new Random(seed);
+        byte[] tiles = tileMap.getTiles();
+        int[] pairs = new int[2 * count];
+        for (int i = 0; i < pairs.length; i++) {
+            int tile;
+            do {
+                tile = random.nextInt(tiles.length);
+            } while (!HierarchicalPathfinder.isPassable(tiles[tile] & 0xFF));
+            pairs[i] = tile;
+        }
+        return pairs;
+    }
+
+    // Breadth-first search over the whole grid, what a query costs without the hierarchy
+    private static int gridSearch(TileMap tileMap, int start, int goal) {
+        int width = tileMap.getWidth();
+        int[] distances = new int[tileMap.getTiles().length];
+        int[] queue = new int[distances.length];
+        Arrays.fill(distances, -1);
+        distances[start] = 0;
+        queue[0] = start;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int tile = queue[head++];
+            if (tile == goal) {
+                return distances[tile];
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int x = tile % width + FlowField.offsetX(direction);
+                int y = tile / width + FlowField.offsetY(direction);
+                if (tileMap.isInside(x, y) && distances[y * width + x] < 0
+                        && HierarchicalPathfinder.isPassable(tileMap.get(x, y))) {
+                    distances[y * width + x] = distances[tile] + 1;
+                    queue[tail++] = y * width + x;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String format(long nanos) {
+        if (nanos >= 1_000_000_000L) {
+            return String.format("%.2f s", nanos / 1e9);
+        }
+        if (nanos >= 1_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.1f us", nanos / 1e3);
+    }
+}
@@ -0,0 +1,71 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a parsed map into a playable level: the game objects sorted into chunks and the engine,
+ * as the loader thread does before {@link GameScreen} shows the level. The pathfinder graph is not part of it,
+ * {@link LevelScene} only builds it on first use.
+ * Sprites are empty regions, so no GL context is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SceneBenchmark {
+
+    @Param({"maps/level-1.properties", "maps/level-2.properties", "maps/level-3.properties",
+            "maps/level-4.properties", "maps/level-5.properties", "synthetic-1024"})
+    public String path;
+
+    private TileMap tileMap;
+    private final TextureRegion keyRegion = new TextureRegion();
+    private final TextureRegion trapRegion = new TextureRegion();
+
+    @Setup
+    public void setup() throws IOException {
+        tileMap = SyntheticMaps.load(path);
+    }
+
+    @Benchmark
+    public LevelScene levelScene() {
+        return new LevelScene(tileMap, keyRegion, trapRegion);
+    }
+
+    @Benchmark
+    public MazeEngine engine() {
+        return new MazeEngine(tileMap);
+    }
+
+    @Benchmark
+    public ChunkGrid gameObjects() {
+        ChunkGrid gameObjects = new ChunkGrid(tileMap.getWidth(), tileMap.getHeight());
+        for (int y = 0; y < tileMap.getHeight(); y++) {
+            for (int x = 0; x < tileMap.getWidth(); x++) {
+                int tile = tileMap.get(x, y);
+                if (tile == TileMap.TRAP) {
+                    gameObjects.add(new Trap(trapRegion, x, y));
+                } else if (tile == TileMap.KEY) {
+                    gameObjects.add(new Key(keyRegion, x, y));
+                }
+            }
+        }
+        return gameObjects;
+    }
+}
@@ -0,0 +1,103 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Maps for the benchmarks: the shipped levels by path, and generated maps by a name like
+ * {@code synthetic-1024}, a square cave map of that size with traps, keys and enemies.
+ * Generated maps are written to a temporary text file on first use, so they can be loaded like real levels.
+ */
+final class SyntheticMaps {
+    static final String PREFIX = "synthetic-";
+
+    private SyntheticMaps() {
+    }
+
+    /**
+     * The map file for a shipped level path or a synthetic map name.
+     */
+    static Path file(String name) throws IOException {
+        if (!name.startsWith(PREFIX)) {
+            return Path.of(name);
+        }
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), "maze-" + name + ".properties");
+        if (!Files.exists(file)) {
+            MazeGenerator.write(generate(Integer.parseInt(name.substring(PREFIX.length()))), file);
+        }
+        return file;
+    }
+
+    static TileMap load(String name) throws IOException {
+        return MapParser.parse(ByteBuffer.wrap(Files.readAllBytes(file(name))));
+    }
+
+    /**
+     * A cave map with a few traps, keys and enemies scattered over the free tiles.
+     */
+    static TileMap generate(int size) {
+        TileMap tileMap = caveMap(size, 42);
+        Random random = new Random(7);
+        byte[] tiles = tileMap.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == TileMap.EMPTY) {
+                int roll = random.nextInt(1000);
+                if (roll < 20) {
+                    tiles[i] = TileMap.TRAP;
+                } else if (roll < 22) {
+                    tiles[i] = TileMap.ENEMY;
+                } else if (roll < 23) {
+                    tiles[i] = TileMap.KEY;
+                }
+            }
+        }
+        tileMap.set(size - 1, size / 2, TileMap.EXIT);
+        return tileMap;
+    }
+
+    /**
+     * An open square map with wall pillars on every fourth tile, the entry on the left border
+     * and the given number of enemies on random free tiles.
+     */
+    static TileMap pillarMap(int size, int enemies, long seed) {
+        TileMap tileMap = new TileMap(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                if (border || (x % 4 == 0 && y % 4 == 0)) {
+                    tileMap.set(x, y, TileMap.WALL);
+                }
+            }
+        }
+        tileMap.set(0, size / 2 + 1, TileMap.ENTRY);
+        Random random = new Random(seed);
+        int placed = 0;
+        while (placed < enemies) {
+            int x = 1 + random.nextInt(size - 2);
+            int y = 1 + random.nextInt(size - 2);
+            if (tileMap.get(x, y) == TileMap.EMPTY && x > 4) {
+                tileMap.set(x, y, TileMap.ENEMY);
+                placed++;
+            }
+        }
+        return tileMap;
+    }
+
+    /**
+     * The pillar map with a quarter of the free tiles turned into walls at random.
+     */
+    static TileMap caveMap(int size, long seed) {
+        TileMap tileMap = pillarMap(size, 0, seed);
+        Random random = new Random(seed);
+        byte[] tiles = tileMap.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == TileMap.EMPTY && random.nextInt(4) == 0) {
+                tiles[i] = TileMap.WALL;
+            }
+        }
+        return tileMap;
+    }
+}
@@ -0,0 +1,120 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Reports the retained heap of a loaded level in the old layout ({@code int[][]} plus one object per tile)
+ * and in the {@link TileMap} layout (flat bytes plus objects for dynamic tiles only).
+ * Run with {@code gradle :benchmarks:heapFootprint}.
+ */
+public class TileMapFootprint {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-26s %14s %14s%n", "map", "int[][]+tiles", "TileMap");
+        for (int level = 1; level <= 5; level++) {
+            Path path = Path.of("maps/level-" + level + ".properties");
+            report(path.toString(), MapParser.parse(ByteBuffer.wrap(Files.readAllBytes(path))));
+        }
+        report("generated 4096x4096", randomMap(4096, 4096, 42));
+    }
+
+    private static void report(String name, TileMap tileMap) {
+        // First run loads and compiles the code paths so they do not show up in the numbers
+        measure(() -> toLegacyLayout(tileMap));
+        measure(() -> toTileMapLayout(tileMap));
+        long before = measure(() -> toLegacyLayout(tileMap));
+        long after = measure(() -> toTileMapLayout(tileMap));
+        System.out.printf("%-26s %14s %14s%n", name, format(before), format(after));
+    }
+
+    // The maze as GameScreen held it before: the int[][] grid and one object for every non-empty tile
+    private static Object toLegacyLayout(TileMap tileMap) {
+        int[][] mazeData = new int[tileMap.getWidth()][tileMap.getHeight()];
+        List<TileObject> objects = new ArrayList<>();
+        for (int x = 0; x < tileMap.getWidth(); x++) {
+            for (int y = 0; y < tileMap.getHeight(); y++) {
+                int tile = tileMap.get(x, y);
+                mazeData[x][y] = tile;
+                if (tile != TileMap.EMPTY) {
+                    objects.add(new TileObject(x, y));
+                }
+            }
+        }
+        return new Object[] {mazeData, objects};
+    }
+
+    private static Object toTileMapLayout(TileMap tileMap) {
+        TileMap copy = new TileMap(tileMap.getWidth(), tileMap.getHeight(), tileMap.getTiles().clone());
+        List<TileObject> objects = new ArrayList<>();
+        for (int y = 0; y < copy.getHeight(); y++) {
+            for (int x = 0; x < copy.getWidth(); x++) {
+                int tile = copy.get(x, y);
+                if (tile == TileMap.TRAP || tile == TileMap.ENEMY || tile == TileMap.KEY) {
+                    objects.add(new TileObject(x, y));
+                }
+            }
+        }
+        return new Object[] {copy, objects};
+    }
+
+    private static long measure(Supplier<Object> layout) {
+        long base = usedHeap();
+        Object retained = layout.get();
+        long used = usedHeap() - base;
+        Reference.reachabilityFence(retained);
+        return used;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    static TileMap randomMap(int width, int height, long seed) {
+        Random random = new Random(seed);
+        TileMap tileMap = new TileMap(width, height);
+        byte[] tiles = tileMap.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            int roll = random.nextInt(100);
+            if (roll < 45) {
+                tiles[i] = TileMap.WALL;
+            } else if (roll < 47) {
+                tiles[i] = TileMap.TRAP;
+            } else if (roll < 48) {
+                tiles[i] = TileMap.ENEMY;
+            }
+        }
+        tileMap.set(0, 0, TileMap.ENTRY);
+        tileMap.set(width - 1, height - 1, TileMap.EXIT);
+        tileMap.set(width / 2, height / 2, TileMap.KEY);
+        return tileMap;
+    }
+
+    private static String format(long bytes) {
+        return bytes < 1 << 20 ? String.format("%.1f KB", bytes / 1024.0) : String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    // Same fields as a GameObject: a texture region reference and the position
+    private static class TileObject {
+        final Object region = null;
+        final float x, y;
+
+        TileObject(int x, int y) {
+            this.x = x * GameObject.TILE_SIZE;
+            this.y = y * GameObject.TILE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of textures, atlases, skins and audio, built on libGDX's {@link AssetManager}.
+ * Screens borrow an asset with {@link #acquire} and give it back with {@link #release}.
+ * An asset nobody borrows stays loaded, so the next screen gets it for free, until the idle assets
+ * exceed the memory budget; then the least recently released ones are unloaded first.
+ * Must only be used from the render thread.
+ */
+public class AssetCache implements Disposable {
+    /** Default budget for assets that are loaded but not in use. */
+    public static final long DEFAULT_IDLE_BUDGET = 64L * 1024 * 1024;
+
+    private final AssetManager manager = new AssetManager();
+    private final Map<String, Integer> refCounts = new HashMap<>();
+    private final Map<String, Long> sizes = new HashMap<>();
+    // Unused assets, least recently released first
+    private final LinkedHashMap<String, Long> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private long idleBudget = DEFAULT_IDLE_BUDGET;
+    private long idleBytes;
+
+    /**
+     * Borrows an asset, loading it first if it is not in memory.
+     * Every call must be matched by one {@link #release}.
+     */
+    public <T> T acquire(String path, Class<T> type) {
+        if (!manager.isLoaded(path, type)) {
+            // Queuing an asset twice would count it twice, so one preloaded but not finished is only waited for
+            if (!manager.contains(path, type)) {
+                manager.load(path, type);
+            }
+            manager.finishLoadingAsset(path);
+        }
+        if (!sizes.containsKey(path)) {
+            sizes.put(path, estimateSize(path, manager.get(path, type)));
+        }
+        Long idleSize = idle.remove(path);
+        if (idleSize != null) {
+            idleBytes -= idleSize;
+        }
+        refCounts.merge(path, 1, Integer::sum);
+        return manager.get(path, type);
+    }
+
+    /**
+     * Starts loading an asset in the background without borrowing it; {@link #update} finishes the loading.
+     * Once {@link #isLoaded} returns true, {@link #acquire} returns it without blocking.
+     */
+    public void preload(String path, Class<?> type) {
+        if (!manager.contains(path, type)) {
+            manager.load(path, type);
+        }
+    }
+
+    /**
+     * Moves preloaded assets along; call it once per frame. Decoding happens on the loader's own thread.
+     *
+     * @return whether every preloaded asset is loaded
+     */
+    public boolean update() {
+        return manager.update();
+    }
+
+    /**
+     * Gives back an asset borrowed with {@link #acquire}. It stays cached until it has to be evicted.
+     */
+    public void release(String path) {
+        Integer count = refCounts.get(path);
+        if (count == null) {
+            throw new GdxRuntimeException("Asset released more often than acquired: " + path);
+        }
+        if (count > 1) {
+            refCounts.put(path, count - 1);
+            return;
+        }
+        refCounts.remove(path);
+        long size = sizes.getOrDefault(path, 0L);
+        idle.put(path, size);
+        idleBytes += size;
+        evict();
+    }
+
+    public int getRefCount(String path) {
+        return refCounts.getOrDefault(path, 0);
+    }
+
+    public boolean isLoaded(String path) {
+        return manager.isLoaded(path);
+    }
+
+    /**
+     * Sets how many bytes of unused assets may stay loaded; 0 unloads assets as soon as they are released.
+     */
+    public void setIdleBudget(long bytes) {
+        idleBudget = bytes;
+        evict();
+    }
+
+    public long getIdleBytes() {
+        return idleBytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = idle.entrySet().iterator();
+        while (idleBytes > idleBudget && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            idleBytes -= entry.getValue();
+            sizes.remove(entry.getKey());
+            manager.unload(entry.getKey());
+        }
+    }
+
+    // Rough memory cost of an asset: texture memory for images, the file size for audio
+    private long estimateSize(String path, Object asset) {
+        if (asset instanceof Texture) {
+            Texture texture = (Texture) asset;
+            return (long) texture.getWidth() * texture.getHeight() * 4;
+        }
+        if (asset instanceof TextureAtlas) {
+            return estimateSize((TextureAtlas) asset);
+        }
+        if (asset instanceof Skin && ((Skin) asset).getAtlas() != null) {
+            return estimateSize(((Skin) asset).getAtlas());
+        }
+        if (asset instanceof Music || asset instanceof Sound) {
+            return manager.getFileHandleResolver().resolve(path).length();
+        }
+        return 0;
+    }
+
+    private static long estimateSize(TextureAtlas atlas) {
+        long size = 0;
+        for (Texture texture : atlas.getTextures()) {
+            size += (long) texture.getWidth() * texture.getHeight() * 4;
+        }
+        return size;
+    }
+
+    /**
+     * Paths of all assets currently in memory, for debugging.
+     */
+    public Array<String> getLoadedAssets() {
+        return manager.getAssetNames();
+    }
+
+    @Override
+    public void dispose() {
+        manager.dispose();
+        refCounts.clear();
+        sizes.clear();
+        idle.clear();
+        idleBytes = 0;
+    }
+}
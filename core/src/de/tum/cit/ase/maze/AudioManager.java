@@ -0,0 +1,161 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plays the game's music and sound effects, independently of which screen is shown.
+ * All tracks and effects are preloaded in the background at startup and stay open, so switching screens
+ * never opens or buffers a file on the render thread. Changing the track fades the old one out while the
+ * new one fades in; a faded out track is paused, not stopped, so it resumes where it left off.
+ * Effects are limited to a number of voices playing at once; a new one cuts off the oldest.
+ * Must only be used from the render thread, with {@link #update} called once per frame.
+ */
+public class AudioManager implements Disposable {
+    public static final String MENU_MUSIC = "menu.mp3";
+    public static final String GAME_MUSIC = "InGame.mp3";
+    public static final String VICTORY_SOUND = "Victory.mp3";
+    public static final float CROSSFADE_SECONDS = 1f;
+    public static final int DEFAULT_MAX_VOICES = 8;
+    private static final String[] MUSIC = {MENU_MUSIC, GAME_MUSIC};
+    private static final String[] SOUNDS = {VICTORY_SOUND};
+
+    private final AssetCache assets;
+    // Tracks taken from the cache once loaded, with how loud each one is faded in, 0 to 1
+    private final Map<String, Music> tracks = new LinkedHashMap<>();
+    private final Map<String, Float> fades = new HashMap<>();
+    private final Map<String, Sound> sounds = new HashMap<>();
+    // The track that should be playing, null for silence
+    private String currentTrack;
+    private float musicVolume = 1, soundVolume = 1;
+    // The voices started last, as a ring, so the oldest is cut off when all are in use
+    private Sound[] voiceSounds = new Sound[DEFAULT_MAX_VOICES];
+    private long[] voiceIds = new long[DEFAULT_MAX_VOICES];
+    private int nextVoice;
+
+    public AudioManager(AssetCache assets) {
+        this.assets = assets;
+        for (String track : MUSIC) {
+            assets.preload(track, Music.class);
+        }
+        for (String sound : SOUNDS) {
+            assets.preload(sound, Sound.class);
+        }
+    }
+
+    /**
+     * Fades over to a looping track. Does nothing if it is already playing; a track still loading starts once loaded.
+     */
+    public void playMusic(String track) {
+        currentTrack = track;
+    }
+
+    /**
+     * Fades the music out.
+     */
+    public void stopMusic() {
+        currentTrack = null;
+    }
+
+    public String getCurrentTrack() {
+        return currentTrack;
+    }
+
+    /**
+     * Plays an effect once, cutting off the oldest voice if {@link #setMaxVoices} are playing already.
+     * An effect that is not loaded yet is skipped rather than played late.
+     *
+     * @return the voice id, or -1 if the effect was not played
+     */
+    public long playSound(String path) {
+        Sound sound = sounds.get(path);
+        if (sound == null) {
+            if (!assets.isLoaded(path)) {
+                return -1;
+            }
+            sound = assets.acquire(path, Sound.class);
+            sounds.put(path, sound);
+        }
+        if (voiceSounds[nextVoice] != null) {
+            voiceSounds[nextVoice].stop(voiceIds[nextVoice]);
+        }
+        long id = sound.play(soundVolume);
+        voiceSounds[nextVoice] = id != -1 ? sound : null;
+        voiceIds[nextVoice] = id;
+        nextVoice = (nextVoice + 1) % voiceSounds.length;
+        return id;
+    }
+
+    /**
+     * How many effects may play at once. Voices already playing are kept until they are cut off.
+     */
+    public void setMaxVoices(int maxVoices) {
+        voiceSounds = new Sound[Math.max(1, maxVoices)];
+        voiceIds = new long[voiceSounds.length];
+        nextVoice = 0;
+    }
+
+    public int getMaxVoices() {
+        return voiceSounds.length;
+    }
+
+    public void setMusicVolume(float musicVolume) {
+        this.musicVolume = musicVolume;
+    }
+
+    public void setSoundVolume(float soundVolume) {
+        this.soundVolume = soundVolume;
+    }
+
+    /**
+     * Finishes background loading and moves the crossfade along.
+     *
+     * @param delta seconds since the last frame
+     */
+    public void update(float delta) {
+        assets.update();
+        if (currentTrack != null && !tracks.containsKey(currentTrack) && assets.isLoaded(currentTrack)) {
+            Music music = assets.acquire(currentTrack, Music.class);
+            music.setLooping(true);
+            tracks.put(currentTrack, music);
+            fades.put(currentTrack, 0f);
+        }
+        float step = delta / CROSSFADE_SECONDS;
+        for (Map.Entry<String, Music> track : tracks.entrySet()) {
+            Music music = track.getValue();
+            float fade = fades.get(track.getKey());
+            if (track.getKey().equals(currentTrack)) {
+                fade = Math.min(1, fade + step);
+                if (!music.isPlaying()) {
+                    music.play();
+                }
+            } else if (fade > 0) {
+                fade = Math.max(0, fade - step);
+                if (fade == 0) {
+                    music.pause();
+                }
+            }
+            fades.put(track.getKey(), fade);
+            music.setVolume(fade * musicVolume);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (Map.Entry<String, Music> track : tracks.entrySet()) {
+            track.getValue().stop();
+            assets.release(track.getKey());
+        }
+        tracks.clear();
+        fades.clear();
+        for (String sound : sounds.keySet()) {
+            assets.release(sound);
+        }
+        sounds.clear();
+    }
+}
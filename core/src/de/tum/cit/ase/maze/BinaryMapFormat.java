@@ -0,0 +1,113 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary map format ({@code .maze}) that loads without any text parsing.
+ *
+ * <pre>
+ * int   magic     'MAZE'
+ * byte  version   1
+ * byte  flags     bit 0 set if a checksum follows the tiles
+ * int   width
+ * int   height
+ * byte  tiles[width * height]   row by row, index y * width + x
+ * int   crc32 of the tiles      only if flag bit 0 is set
+ * </pre>
+ * All numbers are big-endian.
+ */
+public class BinaryMapFormat {
+    public static final String EXTENSION = "maze";
+    public static final int MAGIC = 0x4D415A45;
+    public static final byte VERSION = 1;
+    public static final byte FLAG_CHECKSUM = 1;
+    public static final int HEADER_SIZE = 14;
+
+    private BinaryMapFormat() {
+    }
+
+    /**
+     * Reads a binary map. Files on disk are memory-mapped, classpath files are read into memory.
+     */
+    public static TileMap read(FileHandle file) throws IOException {
+        if (file.type() != FileType.Classpath && file.file().isFile()) {
+            return read(file.file().toPath());
+        }
+        return read(ByteBuffer.wrap(file.readBytes()));
+    }
+
+    public static TileMap read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static TileMap read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary maze file");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary maze version " + version);
+        }
+        byte flags = buffer.get();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height > buffer.remaining()) {
+            throw new IOException("Invalid maze size " + width + "x" + height);
+        }
+        byte[] tiles = new byte[width * height];
+        buffer.get(tiles);
+        if ((flags & FLAG_CHECKSUM) != 0) {
+            if (buffer.remaining() < 4) {
+                throw new IOException("Missing checksum");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(tiles);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                throw new IOException("Checksum mismatch, the map file is corrupted");
+            }
+        }
+        return new TileMap(width, height, tiles);
+    }
+
+    /**
+     * Encodes a maze in the binary format.
+     */
+    public static ByteBuffer write(TileMap tileMap, boolean checksum) {
+        int width = tileMap.getWidth();
+        int height = tileMap.getHeight();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + width * height + (checksum ? 4 : 0));
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(checksum ? FLAG_CHECKSUM : 0);
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.put(tileMap.getTiles());
+        if (checksum) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), HEADER_SIZE, width * height);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public static void write(TileMap tileMap, boolean checksum, Path path) throws IOException {
+        ByteBuffer buffer = write(tileMap, checksum);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
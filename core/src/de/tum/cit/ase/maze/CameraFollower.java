@@ -0,0 +1,80 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Moves the camera a share of the way towards its target on every simulation tick and keeps it away
+ * from the edges of the maze. The positions of the last two ticks are kept so drawing can interpolate.
+ * Plain math without libGDX types, so it can be benchmarked headless.
+ */
+public class CameraFollower {
+    /** Share of the distance to the target covered per tick. */
+    public static final float DEFAULT_LERP = 0.1f;
+    /** Share of the maze size on each side the camera centre stays out of. */
+    public static final float DEFAULT_PADDING = 0.1f;
+
+    private final float lerp, padding;
+    private float minX, maxX, minY, maxY;
+    private float x, y, previousX, previousY;
+
+    public CameraFollower() {
+        this(DEFAULT_LERP, DEFAULT_PADDING);
+    }
+
+    public CameraFollower(float lerp, float padding) {
+        this.lerp = lerp;
+        this.padding = padding;
+    }
+
+    /**
+     * Sets the maze size in pixels.
+     */
+    public void setBounds(float width, float height) {
+        minX = width * padding;
+        maxX = width * (1 - padding);
+        minY = height * padding;
+        maxY = height * (1 - padding);
+    }
+
+    /**
+     * Jumps to a position without smoothing.
+     */
+    public void reset(float x, float y) {
+        this.x = previousX = x;
+        this.y = previousY = y;
+    }
+
+    /**
+     * Advances one tick towards the target.
+     */
+    public void follow(float targetX, float targetY) {
+        previousX = x;
+        previousY = y;
+        x = clamp(x + (targetX - x) * lerp, minX, maxX);
+        y = clamp(y + (targetY - y) * lerp, minY, maxY);
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return value < min ? min : Math.min(value, max);
+    }
+
+    /**
+     * The camera x between the previous tick (alpha 0) and the last one (alpha 1).
+     */
+    public float getX(float alpha) {
+        return previousX + (x - previousX) * alpha;
+    }
+
+    public float getY(float alpha) {
+        return previousY + (y - previousY) * alpha;
+    }
+
+    /**
+     * Distance moved along x in the last tick, e.g. to load what comes into view next.
+     */
+    public float getVelocityX() {
+        return x - previousX;
+    }
+
+    public float getVelocityY() {
+        return y - previousY;
+    }
+}
@@ -8,20 +8,46 @@
 public class Character extends GameObject {
     private Animation<TextureRegion> animation;
     private float stateTime = 0f;
+    // Position at the start of the last tick, used to interpolate between ticks
+    private float previousX, previousY;
 
     public Character(Animation<TextureRegion> animation, float x, float y) {
         super(null, x, y);
         this.animation = animation;
+        previousX = this.x;
+        previousY = this.y;
     }
 
+    /**
+     * Advances the character by one simulation tick.
+     */
     public void update(float delta) {
+        previousX = x;
+        previousY = y;
         stateTime += delta;
     }
 
+    /**
+     * Moves the character to a position in pixels, usually right after {@link #update(float)}.
+     */
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
     @Override
     public void draw(SpriteBatch batch) {
+        draw(batch, 1f);
+    }
+
+    /**
+     * Draws the character between its previous and current tick position.
+     *
+     * @param alpha 0 for the previous position, 1 for the current one
+     */
+    public void draw(SpriteBatch batch, float alpha) {
         TextureRegion currentFrame = animation.getKeyFrame(stateTime, true);
-        batch.draw(currentFrame, x, y);
+        batch.draw(currentFrame, previousX + (x - previousX) * alpha, previousY + (y - previousY) * alpha);
     }
 
     // Getter methods for x and y
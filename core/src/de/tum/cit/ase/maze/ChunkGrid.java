@@ -0,0 +1,153 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spatial index that buckets game objects into square chunks of tiles.
+ * After {@link #setView} only the chunks overlapping the view are visited,
+ * so drawing cost depends on the screen size instead of the map size.
+ */
+public class ChunkGrid {
+    public static final int CHUNK_TILES = 16;
+    public static final int CHUNK_PIXELS = CHUNK_TILES * GameObject.TILE_SIZE;
+
+    private final int chunksX, chunksY;
+    private final List<List<GameObject>> chunks;
+    private int size;
+    private int minChunkX, minChunkY, maxChunkX, maxChunkY;
+
+    public ChunkGrid(int widthInTiles, int heightInTiles) {
+        chunksX = Math.max(1, (widthInTiles + CHUNK_TILES - 1) / CHUNK_TILES);
+        chunksY = Math.max(1, (heightInTiles + CHUNK_TILES - 1) / CHUNK_TILES);
+        chunks = new ArrayList<>(chunksX * chunksY);
+        for (int i = 0; i < chunksX * chunksY; i++) {
+            chunks.add(new ArrayList<>());
+        }
+        maxChunkX = chunksX - 1;
+        maxChunkY = chunksY - 1;
+    }
+
+    public void add(GameObject gameObject) {
+        int chunkX = clampChunkX((int) Math.floor(gameObject.x / CHUNK_PIXELS));
+        int chunkY = clampChunkY((int) Math.floor(gameObject.y / CHUNK_PIXELS));
+        chunks.get(chunkY * chunksX + chunkX).add(gameObject);
+        size++;
+    }
+
+    /**
+     * Removes the object lying on the given tile, if there is one.
+     *
+     * @return the removed object, or null
+     */
+    public GameObject removeAt(int tileX, int tileY) {
+        int chunkX = clampChunkX(tileX / CHUNK_TILES);
+        int chunkY = clampChunkY(tileY / CHUNK_TILES);
+        List<GameObject> chunk = chunks.get(chunkY * chunksX + chunkX);
+        for (int i = 0; i < chunk.size(); i++) {
+            GameObject gameObject = chunk.get(i);
+            if ((int) (gameObject.x / GameObject.TILE_SIZE) == tileX && (int) (gameObject.y / GameObject.TILE_SIZE) == tileY) {
+                chunk.remove(i);
+                size--;
+                return gameObject;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Selects the chunks that overlap the given world rectangle, in pixels.
+     * The rectangle is widened by one tile so sprites reaching over a chunk border are kept.
+     */
+    public void setView(float left, float bottom, float right, float top) {
+        minChunkX = clampChunkX((int) Math.floor((left - GameObject.TILE_SIZE) / CHUNK_PIXELS));
+        minChunkY = clampChunkY((int) Math.floor((bottom - GameObject.TILE_SIZE) / CHUNK_PIXELS));
+        maxChunkX = clampChunkX((int) Math.floor((right + GameObject.TILE_SIZE) / CHUNK_PIXELS));
+        maxChunkY = clampChunkY((int) Math.floor((top + GameObject.TILE_SIZE) / CHUNK_PIXELS));
+    }
+
+    /**
+     * Draws the objects of the chunks selected by {@link #setView}.
+     *
+     * @return the number of objects drawn
+     */
+    public int draw(SpriteBatch batch) {
+        return draw(batch, null);
+    }
+
+    /**
+     * Draws the objects of the chunks selected by {@link #setView} whose tile is in sight.
+     *
+     * @param fieldOfView what the player sees, or null to draw all
+     * @return the number of objects drawn
+     */
+    public int draw(SpriteBatch batch, FieldOfView fieldOfView) {
+        int drawn = 0;
+        for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                List<GameObject> chunk = chunks.get(chunkY * chunksX + chunkX);
+                for (int i = 0; i < chunk.size(); i++) {
+                    GameObject gameObject = chunk.get(i);
+                    if (fieldOfView != null && !fieldOfView.isVisible((int) (gameObject.x / GameObject.TILE_SIZE),
+                            (int) (gameObject.y / GameObject.TILE_SIZE))) {
+                        continue;
+                    }
+                    gameObject.draw(batch);
+                    drawn++;
+                }
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Counts the objects in the chunks selected by {@link #setView} without drawing them.
+     */
+    public int countVisible() {
+        int visible = 0;
+        for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                visible += chunks.get(chunkY * chunksX + chunkX).size();
+            }
+        }
+        return visible;
+    }
+
+    private int clampChunkX(int chunkX) {
+        return Math.max(0, Math.min(chunksX - 1, chunkX));
+    }
+
+    private int clampChunkY(int chunkY) {
+        return Math.max(0, Math.min(chunksY - 1, chunkY));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getChunksX() {
+        return chunksX;
+    }
+
+    public int getChunksY() {
+        return chunksY;
+    }
+
+    public int getMinChunkX() {
+        return minChunkX;
+    }
+
+    public int getMinChunkY() {
+        return minChunkY;
+    }
+
+    public int getMaxChunkX() {
+        return maxChunkX;
+    }
+
+    public int getMaxChunkY() {
+        return maxChunkY;
+    }
+}
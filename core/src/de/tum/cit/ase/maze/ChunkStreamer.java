@@ -0,0 +1,290 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The static tiles of maps too big for a {@link StaticTileLayer}, streamed in chunks around the camera.
+ * A background thread turns the tiles of a chunk into ready-made SpriteBatch vertices; the render thread only
+ * copies them into the batch. Chunks around the view are requested every frame, more of them in the direction
+ * the camera moves, and the least recently drawn chunks are dropped once the vertices exceed a memory budget.
+ * A visible chunk that has not arrived yet is built on the spot, which is counted as a stall.
+ */
+public class ChunkStreamer implements Disposable {
+    /** Default memory budget for the vertices of resident chunks. */
+    public static final long DEFAULT_BUDGET_BYTES = 32L * 1024 * 1024;
+    /** Chunks loaded on every side of the view. */
+    public static final int PREFETCH_RADIUS = 1;
+    /** How many ticks ahead of the camera's movement chunks are loaded. */
+    public static final int LOOKAHEAD_TICKS = 60;
+    // Requests handed to the loader thread but not back yet
+    private static final int MAX_IN_FLIGHT = 32;
+    private static final int FLOATS_PER_SPRITE = 20;
+    // Rough cost of a chunk besides its vertices: map entry, array header
+    private static final int CHUNK_OVERHEAD_BYTES = 64;
+
+    private static class Chunk {
+        final int index;
+        final float[] vertices;
+
+        Chunk(int index, float[] vertices) {
+            this.index = index;
+            this.vertices = vertices;
+        }
+    }
+
+    private final TileMap tileMap;
+    private final TextureRegion[] regions;
+    private final Texture texture;
+    private final float color = Color.WHITE.toFloatBits();
+    private final int chunksX, chunksY;
+    private final int size;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chunk-streamer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<Chunk> loaded = new ConcurrentLinkedQueue<>();
+    // Resident chunks, least recently drawn first
+    private final LinkedHashMap<Integer, float[]> resident = new LinkedHashMap<>(256, 0.75f, true);
+    private final BitSet requested = new BitSet();
+    private long budgetBytes = DEFAULT_BUDGET_BYTES;
+    private long residentBytes;
+    private int inFlight;
+    private int stalls, loads, evictions;
+
+    /**
+     * @param regions region for every static tile value, indexed by tile value; all from the same texture
+     */
+    public ChunkStreamer(TileMap tileMap, TextureRegion[] regions) {
+        this.tileMap = tileMap;
+        this.regions = regions.clone();
+        Texture shared = null;
+        for (TextureRegion region : regions) {
+            if (region == null) {
+                continue;
+            }
+            if (shared != null && region.getTexture() != shared) {
+                throw new IllegalArgumentException("Streamed tiles must share one texture");
+            }
+            shared = region.getTexture();
+        }
+        texture = shared;
+        chunksX = (tileMap.getWidth() + ChunkGrid.CHUNK_TILES - 1) / ChunkGrid.CHUNK_TILES;
+        chunksY = (tileMap.getHeight() + ChunkGrid.CHUNK_TILES - 1) / ChunkGrid.CHUNK_TILES;
+        int count = 0;
+        for (byte tile : tileMap.getTiles()) {
+            if (regionFor(tile) != null) {
+                count++;
+            }
+        }
+        size = count;
+    }
+
+    public void setBudget(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        evict();
+    }
+
+    /**
+     * Takes in the chunks the loader finished and asks for the ones the next frames will need:
+     * the view, {@link #PREFETCH_RADIUS} chunks around it, and the area the camera reaches in
+     * {@link #LOOKAHEAD_TICKS} ticks at its current speed. Called once per frame before {@link #draw}.
+     *
+     * @param velocityX camera movement in pixels per tick
+     * @param velocityY camera movement in pixels per tick
+     */
+    public void update(int minChunkX, int minChunkY, int maxChunkX, int maxChunkY, float velocityX, float velocityY) {
+        for (Chunk chunk; (chunk = loaded.poll()) != null; ) {
+            inFlight--;
+            if (requested.get(chunk.index)) {
+                requested.clear(chunk.index);
+                resident.put(chunk.index, chunk.vertices);
+                residentBytes += bytes(chunk.vertices);
+                loads++;
+            }
+        }
+        request(minChunkX, minChunkY, maxChunkX, maxChunkY);
+        request(minChunkX - PREFETCH_RADIUS, minChunkY - PREFETCH_RADIUS,
+                maxChunkX + PREFETCH_RADIUS, maxChunkY + PREFETCH_RADIUS);
+        int aheadX = Math.round(velocityX * LOOKAHEAD_TICKS / ChunkGrid.CHUNK_PIXELS);
+        int aheadY = Math.round(velocityY * LOOKAHEAD_TICKS / ChunkGrid.CHUNK_PIXELS);
+        if (aheadX != 0 || aheadY != 0) {
+            request(minChunkX + Math.min(0, aheadX), minChunkY + Math.min(0, aheadY),
+                    maxChunkX + Math.max(0, aheadX), maxChunkY + Math.max(0, aheadY));
+        }
+        evict();
+    }
+
+    private void request(int minChunkX, int minChunkY, int maxChunkX, int maxChunkY) {
+        for (int chunkY = Math.max(0, minChunkY); chunkY <= Math.min(chunksY - 1, maxChunkY); chunkY++) {
+            for (int chunkX = Math.max(0, minChunkX); chunkX <= Math.min(chunksX - 1, maxChunkX); chunkX++) {
+                if (inFlight >= MAX_IN_FLIGHT) {
+                    return;
+                }
+                int index = chunkY * chunksX + chunkX;
+                if (requested.get(index) || resident.containsKey(index)) {
+                    continue;
+                }
+                requested.set(index);
+                inFlight++;
+                loader.execute(() -> loaded.add(new Chunk(index, buildVertices(index))));
+            }
+        }
+    }
+
+    // Drops the least recently drawn chunks until the resident vertices fit the budget
+    private void evict() {
+        Iterator<Map.Entry<Integer, float[]>> eldest = resident.entrySet().iterator();
+        while (residentBytes > budgetBytes && eldest.hasNext()) {
+            residentBytes -= bytes(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long bytes(float[] vertices) {
+        return vertices.length * 4L + CHUNK_OVERHEAD_BYTES;
+    }
+
+    // The SpriteBatch vertices of every static tile in a chunk; runs on the loader thread
+    private float[] buildVertices(int index) {
+        int startX = index % chunksX * ChunkGrid.CHUNK_TILES;
+        int startY = index / chunksX * ChunkGrid.CHUNK_TILES;
+        int endX = Math.min(startX + ChunkGrid.CHUNK_TILES, tileMap.getWidth());
+        int endY = Math.min(startY + ChunkGrid.CHUNK_TILES, tileMap.getHeight());
+        int count = 0;
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                if (regionFor(tileMap.get(x, y)) != null) {
+                    count++;
+                }
+            }
+        }
+        float[] vertices = new float[count * FLOATS_PER_SPRITE];
+        int i = 0;
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                TextureRegion region = regionFor(tileMap.get(x, y));
+                if (region == null) {
+                    continue;
+                }
+                float left = x * GameObject.TILE_SIZE;
+                float bottom = y * GameObject.TILE_SIZE;
+                float right = left + region.getRegionWidth();
+                float top = bottom + region.getRegionHeight();
+                // Same corner order and texture coordinates as SpriteBatch.draw(TextureRegion, x, y)
+                i = put(vertices, i, left, bottom, region.getU(), region.getV2());
+                i = put(vertices, i, left, top, region.getU(), region.getV());
+                i = put(vertices, i, right, top, region.getU2(), region.getV());
+                i = put(vertices, i, right, bottom, region.getU2(), region.getV2());
+            }
+        }
+        return vertices;
+    }
+
+    private int put(float[] vertices, int i, float x, float y, float u, float v) {
+        vertices[i] = x;
+        vertices[i + 1] = y;
+        vertices[i + 2] = color;
+        vertices[i + 3] = u;
+        vertices[i + 4] = v;
+        return i + 5;
+    }
+
+    private TextureRegion regionFor(int tile) {
+        tile &= 0xFF;
+        return tile < regions.length ? regions[tile] : null;
+    }
+
+    /**
+     * Draws the chunks in the given inclusive range. Must be called between {@code batch.begin()} and {@code batch.end()}.
+     *
+     * @return the number of tiles drawn
+     */
+    public int draw(SpriteBatch batch, int minChunkX, int minChunkY, int maxChunkX, int maxChunkY) {
+        int drawn = 0;
+        for (int chunkY = Math.max(0, minChunkY); chunkY <= Math.min(chunksY - 1, maxChunkY); chunkY++) {
+            for (int chunkX = Math.max(0, minChunkX); chunkX <= Math.min(chunksX - 1, maxChunkX); chunkX++) {
+                int index = chunkY * chunksX + chunkX;
+                float[] vertices = resident.get(index);
+                if (vertices == null) {
+                    // Not streamed in time: build it now, and ignore the copy still on its way
+                    vertices = buildVertices(index);
+                    requested.clear(index);
+                    resident.put(index, vertices);
+                    residentBytes += bytes(vertices);
+                    stalls++;
+                }
+                if (vertices.length > 0 && batch != null) {
+                    batch.draw(texture, vertices, 0, vertices.length);
+                    drawn += vertices.length / FLOATS_PER_SPRITE;
+                }
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Whether every requested chunk has been taken in by {@link #update}.
+     */
+    public boolean isIdle() {
+        return inFlight == 0;
+    }
+
+    /**
+     * Share of the chunks requested so far that have arrived, 0 before anything was requested.
+     */
+    public float getLoadProgress() {
+        int requests = loads + inFlight;
+        return requests == 0 ? 0 : (float) loads / requests;
+    }
+
+    /**
+     * Number of static tiles on the whole map, streamed in or not.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getResidentChunks() {
+        return resident.size();
+    }
+
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Visible chunks that had to be built on the render thread because they were not streamed in time.
+     */
+    public int getStalls() {
+        return stalls;
+    }
+
+    public int getLoads() {
+        return loads;
+    }
+
+    public int getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public void dispose() {
+        loader.shutdownNow();
+        resident.clear();
+        residentBytes = 0;
+    }
+}
@@ -0,0 +1,247 @@
+package de.tum.cit.ase.maze;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Shortest ways to a set of source tiles over the whole map, from one breadth-first flood fill.
+ * Instead of a distance per tile it keeps two bits per tile, the {@link FlowField} direction of the next step
+ * towards the nearest source, plus a bit for whether the tile was reached: a 4096x4096 map takes 6 MB.
+ * Distances are found by following the steps; the distances to the targets given to {@link #compute}
+ * are recorded during the fill.
+ * The player walks on every tile except walls, entries and exits; an entry or exit can still be a source or target.
+ */
+public class DistanceField {
+    private final int width, height;
+    private final long[] reached, sources, steps;
+    // Bits of the targets, so most tiles are ruled out without a search
+    private final long[] targetBits;
+    private final int[] targets, targetDistances;
+    private int reachedCount, maxDistance;
+
+    private DistanceField(int width, int height, int[] targets) {
+        this.width = width;
+        this.height = height;
+        int tiles = width * height;
+        reached = new long[(tiles + 63) / 64];
+        sources = new long[reached.length];
+        steps = new long[(tiles + 31) / 32];
+        this.targets = targets.clone();
+        Arrays.sort(this.targets);
+        targetDistances = new int[targets.length];
+        Arrays.fill(targetDistances, -1);
+        targetBits = new long[reached.length];
+        for (int target : targets) {
+            set(targetBits, target);
+        }
+    }
+
+    /**
+     * Writes the field for {@link #read}, e.g. into the {@link MapCache}.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(reachedCount);
+        out.writeInt(maxDistance);
+        out.writeInt(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            out.writeInt(targets[i]);
+            out.writeInt(targetDistances[i]);
+        }
+        for (long[] bits : new long[][] {reached, sources, steps}) {
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * Reads a field written by {@link #write}, leaving the buffer after it.
+     */
+    static DistanceField read(ByteBuffer in) {
+        int width = in.getInt();
+        int height = in.getInt();
+        int reachedCount = in.getInt();
+        int maxDistance = in.getInt();
+        int[] targets = new int[in.getInt()];
+        int[] distances = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = in.getInt();
+            distances[i] = in.getInt();
+        }
+        // The targets were written sorted, so they keep their order
+        DistanceField field = new DistanceField(width, height, targets);
+        System.arraycopy(distances, 0, field.targetDistances, 0, distances.length);
+        field.reachedCount = reachedCount;
+        field.maxDistance = maxDistance;
+        for (long[] bits : new long[][] {field.reached, field.sources, field.steps}) {
+            in.asLongBuffer().get(bits);
+            in.position(in.position() + bits.length * Long.BYTES);
+        }
+        return field;
+    }
+
+    /**
+     * Floods the map from all sources at once.
+     *
+     * @param sources source tiles as {@code y * width + x}
+     * @param targets tiles whose distance is recorded, see {@link #getTargetDistance}
+     */
+    public static DistanceField compute(TileMap tileMap, int[] sources, int[] targets) {
+        int width = tileMap.getWidth();
+        DistanceField field = new DistanceField(width, tileMap.getHeight(), targets);
+        byte[] tiles = tileMap.getTiles();
+        int[] frontier = new int[Math.max(16, sources.length)];
+        int[] next = new int[frontier.length];
+        int frontierSize = 0;
+        for (int source : sources) {
+            if (!field.isSet(field.reached, source)) {
+                field.set(field.reached, source);
+                field.set(field.sources, source);
+                field.recordTarget(source, 0);
+                frontier[frontierSize++] = source;
+            }
+        }
+        field.reachedCount = frontierSize;
+
+        int distance = 0;
+        while (frontierSize > 0) {
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                int tile = frontier[i];
+                int x = tile % width;
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour;
+                    switch (direction) {
+                        case FlowField.RIGHT:
+                            neighbour = x + 1 < width ? tile + 1 : -1;
+                            break;
+                        case FlowField.LEFT:
+                            neighbour = x > 0 ? tile - 1 : -1;
+                            break;
+                        case FlowField.UP:
+                            neighbour = tile + width < tiles.length ? tile + width : -1;
+                            break;
+                        default:
+                            neighbour = tile - width;
+                            break;
+                    }
+                    if (neighbour < 0) {
+                        continue;
+                    }
+                    if (field.isSet(field.reached, neighbour)) {
+                        continue;
+                    }
+                    if (!TileMap.isWalkable(tiles[neighbour] & 0xFF)) {
+                        // Targets like the exit are reached by touching them, not by walking through them
+                        field.recordTarget(neighbour, distance + 1);
+                        continue;
+                    }
+                    field.set(field.reached, neighbour);
+                    // The step from the neighbour back to this tile goes the opposite way, directions come in pairs
+                    field.setStep(neighbour, direction ^ 1);
+                    field.recordTarget(neighbour, distance + 1);
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, next.length * 2);
+                    }
+                    next[nextSize++] = neighbour;
+                }
+            }
+            field.reachedCount += nextSize;
+            if (nextSize > 0) {
+                distance++;
+            }
+            int[] swap = frontier;
+            frontier = next;
+            next = swap.length >= frontier.length ? swap : new int[frontier.length];
+            frontierSize = nextSize;
+        }
+        field.maxDistance = distance;
+        return field;
+    }
+
+    private void recordTarget(int tile, int distance) {
+        if (!isSet(targetBits, tile)) {
+            return;
+        }
+        int index = Arrays.binarySearch(targets, tile);
+        if (index >= 0 && targetDistances[index] < 0) {
+            targetDistances[index] = distance;
+        }
+    }
+
+    private boolean isSet(long[] bits, int tile) {
+        return (bits[tile >>> 6] & 1L << tile) != 0;
+    }
+
+    private void set(long[] bits, int tile) {
+        bits[tile >>> 6] |= 1L << tile;
+    }
+
+    private void setStep(int tile, int direction) {
+        steps[tile >>> 5] |= (long) direction << ((tile & 31) * 2);
+    }
+
+    private int step(int tile) {
+        return (int) (steps[tile >>> 5] >>> ((tile & 31) * 2)) & 3;
+    }
+
+    public boolean isReachable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && isSet(reached, y * width + x);
+    }
+
+    /**
+     * The direction of the next step towards the nearest source, as a {@link FlowField} direction,
+     * or {@link FlowField#NONE} on a source or an unreached tile.
+     */
+    public int getStep(int x, int y) {
+        if (!isReachable(x, y) || isSet(sources, y * width + x)) {
+            return FlowField.NONE;
+        }
+        return step(y * width + x);
+    }
+
+    /**
+     * Steps to the nearest source, or -1 if unreached. Follows the steps, so it takes time proportional to the distance.
+     */
+    public int getDistance(int x, int y) {
+        if (!isReachable(x, y)) {
+            return -1;
+        }
+        int tile = y * width + x;
+        int distance = 0;
+        while (!isSet(sources, tile)) {
+            int direction = step(tile);
+            tile += FlowField.offsetX(direction) + FlowField.offsetY(direction) * width;
+            distance++;
+        }
+        return distance;
+    }
+
+    /**
+     * Distance of a target given to {@link #compute}, or -1 if it was not reached.
+     *
+     * @param tile the target as {@code y * width + x}
+     */
+    public int getTargetDistance(int tile) {
+        int index = Arrays.binarySearch(targets, tile);
+        return index >= 0 ? targetDistances[index] : -1;
+    }
+
+    /**
+     * Number of tiles reached, sources included.
+     */
+    public int getReachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * Distance of the farthest reached tile.
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+}
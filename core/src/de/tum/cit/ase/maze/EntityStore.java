@@ -0,0 +1,267 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The keys, traps and enemies of a {@link MazeEngine} as parallel primitive arrays instead of one object each,
+ * so a tick over all enemies is a linear pass over a few arrays rather than a walk over scattered objects.
+ * Entities are packed into the indices {@code 0..size()-1}, enemies first: they always hold
+ * {@code 0..getEnemyCount()-1}. Removing an entity moves another one into its slot, so indices are only
+ * stable until the next removal. Positions are in tiles like in the engine; the type is the tile value,
+ * e.g. {@link TileMap#KEY}.
+ */
+public class EntityStore {
+    /** Enemy count from which {@link #moveEnemies} is split across the common {@link ForkJoinPool}. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16 * 1024;
+    // Enemies moved by one task at least
+    private static final int SLICE = 4096;
+    private static final float ENEMY_OFFSET = (1 - MazeEngine.ENEMY_SIZE) / 2;
+
+    private byte[] types;
+    private float[] x, y, previousX, previousY;
+    // The tile an enemy walks to, its centre is where the enemy stops
+    private int[] targetX, targetY;
+    private int size, enemyCount;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    public EntityStore() {
+        this(16);
+    }
+
+    public EntityStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        types = new byte[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        targetX = new int[capacity];
+        targetY = new int[capacity];
+    }
+
+    /**
+     * Enemy count from which {@link #moveEnemies} runs in parallel; {@code Integer.MAX_VALUE} keeps it on the
+     * calling thread.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Adds an entity on a tile. Keys and traps lie in the tile's bottom-left corner, enemies stand
+     * centred in it with their own tile as target.
+     *
+     * @return the entity's index, until the next removal
+     */
+    public int add(int type, int tileX, int tileY) {
+        if (size == types.length) {
+            grow(size * 2);
+        }
+        int index = size++;
+        if (type == TileMap.ENEMY) {
+            // The first entity after the enemies makes room at the end
+            if (enemyCount < index) {
+                move(enemyCount, index);
+            }
+            index = enemyCount++;
+        }
+        float offset = type == TileMap.ENEMY ? ENEMY_OFFSET : 0;
+        types[index] = (byte) type;
+        x[index] = previousX[index] = tileX + offset;
+        y[index] = previousY[index] = tileY + offset;
+        targetX[index] = tileX;
+        targetY[index] = tileY;
+        return index;
+    }
+
+    private void grow(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        targetX = Arrays.copyOf(targetX, capacity);
+        targetY = Arrays.copyOf(targetY, capacity);
+    }
+
+    // Copies the entity at 'from' over the one at 'to'
+    private void move(int from, int to) {
+        types[to] = types[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        previousX[to] = previousX[from];
+        previousY[to] = previousY[from];
+        targetX[to] = targetX[from];
+        targetY[to] = targetY[from];
+    }
+
+    /**
+     * Removes an entity by moving the last one of the same group, enemies or the rest, into its slot.
+     */
+    public void remove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Entity " + index + " of " + size);
+        }
+        if (index < enemyCount) {
+            // The last enemy fills the hole, the last entity the one it leaves
+            move(--enemyCount, index);
+            index = enemyCount;
+        }
+        move(--size, index);
+    }
+
+    /**
+     * The index of the key or trap of the given type lying on the tile, or -1. Looks at every key and trap.
+     */
+    public int findAt(int type, int tileX, int tileY) {
+        for (int i = enemyCount; i < size; i++) {
+            if (types[i] == type && targetX[i] == tileX && targetY[i] == tileY) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves every enemy one step towards its target tile; an enemy that arrived takes the next tile from the
+     * field. From {@link #setParallelThreshold the threshold} on, slices of the enemies are moved in parallel.
+     * Each enemy only reads the field and writes its own slot, so the result is the same either way.
+     *
+     * @param step how far an enemy walks, in tiles
+     */
+    public void moveEnemies(FlowField flowField, float step) {
+        if (enemyCount >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new EnemyStep(flowField, step, 0, enemyCount));
+        } else {
+            moveEnemies(flowField, step, 0, enemyCount);
+        }
+    }
+
+    private void moveEnemies(FlowField flowField, float step, int from, int to) {
+        for (int i = from; i < to; i++) {
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            int tileX = targetX[i];
+            int tileY = targetY[i];
+            float dx = tileX + ENEMY_OFFSET - x[i];
+            float dy = tileY + ENEMY_OFFSET - y[i];
+            float distance = Math.abs(dx) + Math.abs(dy);
+            if (distance <= step) {
+                // Arrived at the target tile, the field tells where to go next
+                x[i] = tileX + ENEMY_OFFSET;
+                y[i] = tileY + ENEMY_OFFSET;
+                int direction = flowField.getDirection(tileX, tileY);
+                if (direction != FlowField.NONE) {
+                    targetX[i] = tileX + FlowField.offsetX(direction);
+                    targetY[i] = tileY + FlowField.offsetY(direction);
+                }
+            } else {
+                x[i] += dx / distance * step;
+                y[i] += dy / distance * step;
+            }
+        }
+    }
+
+    // Only ever run on the pool, never serialized
+    @SuppressWarnings("serial")
+    private class EnemyStep extends RecursiveAction {
+        private final FlowField flowField;
+        private final float step;
+        private final int from, to;
+
+        EnemyStep(FlowField flowField, float step, int from, int to) {
+            this.flowField = flowField;
+            this.step = step;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE) {
+                moveEnemies(flowField, step, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EnemyStep(flowField, step, from, middle), new EnemyStep(flowField, step, middle, to));
+        }
+    }
+
+    /**
+     * Writes the enemies' positions and targets, for {@link MazeEngine#writeState}.
+     */
+    void writeEnemies(ByteBuffer out) {
+        out.putInt(enemyCount);
+        for (int i = 0; i < enemyCount; i++) {
+            out.putFloat(x[i]);
+            out.putFloat(y[i]);
+            out.putFloat(previousX[i]);
+            out.putFloat(previousY[i]);
+            out.putInt(targetX[i]);
+            out.putInt(targetY[i]);
+        }
+    }
+
+    /**
+     * Restores what {@link #writeEnemies} wrote into a store with as many enemies.
+     */
+    void readEnemies(ByteBuffer in) {
+        int count = in.getInt();
+        if (count != enemyCount) {
+            throw new IllegalArgumentException("Snapshot has " + count + " enemies, the map " + enemyCount);
+        }
+        for (int i = 0; i < enemyCount; i++) {
+            x[i] = in.getFloat();
+            y[i] = in.getFloat();
+            previousX[i] = in.getFloat();
+            previousY[i] = in.getFloat();
+            targetX[i] = in.getInt();
+            targetY[i] = in.getInt();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public int getType(int index) {
+        return types[index];
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Where the entity was before the last step, for interpolated drawing.
+     */
+    public float getPreviousX(int index) {
+        return previousX[index];
+    }
+
+    public float getPreviousY(int index) {
+        return previousY[index];
+    }
+
+    /**
+     * The tile a key or trap lies on, or the tile an enemy walks to.
+     */
+    public int getTileX(int index) {
+        return targetX[index];
+    }
+
+    public int getTileY(int index) {
+        return targetY[index];
+    }
+}
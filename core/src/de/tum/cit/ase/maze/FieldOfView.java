@@ -0,0 +1,282 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * What the player can see from a tile, for dark mazes: recursive shadowcasting over the eight octants around the
+ * viewer, up to a radius. Tiles in line of sight are visible; every tile that was visible once stays explored.
+ * Both sets, and which tiles block the view, are bitsets of one bit per tile, so a lookup is a shift and a mask.
+ * Like {@link FlowField}, nothing is recomputed while the viewer stays on the same tile, and only the square
+ * lit by the previous update is cleared.
+ */
+public class FieldOfView {
+    public static final int DEFAULT_RADIUS = 8;
+    // Octant transforms: row and column steps mapped to x and y
+    private static final int[] XX = {1, 0, 0, -1, -1, 0, 0, 1};
+    private static final int[] XY = {0, 1, -1, 0, 0, -1, 1, 0};
+    private static final int[] YX = {0, 1, 1, 0, 0, -1, -1, 0};
+    private static final int[] YY = {1, 0, 0, 1, -1, 0, 0, -1};
+
+    private final int width, height;
+    private final long[] opaque;
+    private final long[] visible;
+    private final long[] explored;
+    private int radius;
+    private int viewerX = Integer.MIN_VALUE, viewerY = Integer.MIN_VALUE;
+    // The square cleared before the next update
+    private int litMinX, litMinY, litMaxX = -1, litMaxY = -1;
+    // Bounds of the explored tiles, empty while min > max
+    private int exploredMinX = Integer.MAX_VALUE, exploredMinY = Integer.MAX_VALUE;
+    private int exploredMaxX = -1, exploredMaxY = -1;
+    private int recomputes;
+
+    public FieldOfView(TileMap tileMap) {
+        this(tileMap, DEFAULT_RADIUS);
+    }
+
+    /**
+     * Takes which tiles block the view from the map once; collecting keys does not change it.
+     */
+    public FieldOfView(TileMap tileMap, int radius) {
+        width = tileMap.getWidth();
+        height = tileMap.getHeight();
+        int words = (int) (((long) width * height + 63) >>> 6);
+        opaque = new long[words];
+        visible = new long[words];
+        explored = new long[words];
+        byte[] tiles = tileMap.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            if (isOpaque(tiles[i])) {
+                opaque[i >>> 6] |= 1L << i;
+            }
+        }
+        this.radius = radius;
+    }
+
+    /**
+     * Whether a tile blocks the view: the tiles that are not {@link TileMap#isWalkable walkable}.
+     * They are seen themselves.
+     */
+    public static boolean isOpaque(int tile) {
+        return !TileMap.isWalkable(tile);
+    }
+
+    /**
+     * Moves the viewer to a tile. Nothing is recomputed while the viewer stays on the same tile.
+     *
+     * @return true if the visible tiles were recomputed
+     */
+    public boolean update(int x, int y) {
+        if (x == viewerX && y == viewerY) {
+            return false;
+        }
+        viewerX = x;
+        viewerY = y;
+        recomputes++;
+        for (int row = litMinY; row <= litMaxY; row++) {
+            clearRange(visible, row * width + litMinX, row * width + litMaxX + 1);
+        }
+        if (!isInside(x, y)) {
+            litMaxX = litMaxY = -1;
+            return true;
+        }
+        litMinX = Math.max(0, x - radius);
+        litMinY = Math.max(0, y - radius);
+        litMaxX = Math.min(width - 1, x + radius);
+        litMaxY = Math.min(height - 1, y + radius);
+        see(x, y);
+        for (int octant = 0; octant < 8; octant++) {
+            castLight(1, 1, 0, XX[octant], XY[octant], YX[octant], YY[octant]);
+        }
+        return true;
+    }
+
+    // Scans the rows of one octant from row on, between two slopes; recurses past every wall that splits the light
+    private void castLight(int row, float start, float end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        int radiusSquared = radius * radius;
+        float nextStart = 0;
+        for (int distance = row; distance <= radius; distance++) {
+            boolean blocked = false;
+            int dy = -distance;
+            for (int dx = -distance; dx <= 0; dx++) {
+                float leftSlope = (dx - 0.5f) / (dy + 0.5f);
+                float rightSlope = (dx + 0.5f) / (dy - 0.5f);
+                if (start < rightSlope) {
+                    continue;
+                }
+                if (end > leftSlope) {
+                    break;
+                }
+                int x = viewerX + dx * xx + dy * xy;
+                int y = viewerY + dx * yx + dy * yy;
+                boolean inside = isInside(x, y);
+                if (inside && dx * dx + dy * dy <= radiusSquared) {
+                    see(x, y);
+                }
+                boolean blocking = !inside || isSet(opaque, y * width + x);
+                if (blocked) {
+                    if (blocking) {
+                        nextStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = nextStart;
+                    }
+                } else if (blocking && distance < radius) {
+                    blocked = true;
+                    castLight(distance + 1, start, leftSlope, xx, xy, yx, yy);
+                    nextStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                break;
+            }
+        }
+    }
+
+    private void see(int x, int y) {
+        int index = y * width + x;
+        visible[index >>> 6] |= 1L << index;
+        explored[index >>> 6] |= 1L << index;
+        exploredMinX = Math.min(exploredMinX, x);
+        exploredMinY = Math.min(exploredMinY, y);
+        exploredMaxX = Math.max(exploredMaxX, x);
+        exploredMaxY = Math.max(exploredMaxY, y);
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    // Clears the bits from 'from' up to, not including, 'to'
+    private static void clearRange(long[] bits, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            bits[first] &= ~(firstMask & lastMask);
+            return;
+        }
+        bits[first] &= ~firstMask;
+        for (int i = first + 1; i < last; i++) {
+            bits[i] = 0;
+        }
+        bits[last] &= ~lastMask;
+    }
+
+    public boolean isVisible(int x, int y) {
+        return isInside(x, y) && isSet(visible, y * width + x);
+    }
+
+    public boolean isExplored(int x, int y) {
+        return isInside(x, y) && isSet(explored, y * width + x);
+    }
+
+    /**
+     * How far the viewer sees, in tiles. The next {@link #update} recomputes.
+     */
+    public void setRadius(int radius) {
+        this.radius = radius;
+        viewerX = viewerY = Integer.MIN_VALUE;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Times the visible tiles were recomputed so far.
+     */
+    public int getRecomputes() {
+        return recomputes;
+    }
+
+    /**
+     * The smallest explored x, larger than {@link #getExploredMaxX()} while nothing is explored.
+     */
+    public int getExploredMinX() {
+        return exploredMinX;
+    }
+
+    public int getExploredMinY() {
+        return exploredMinY;
+    }
+
+    public int getExploredMaxX() {
+        return exploredMaxX;
+    }
+
+    public int getExploredMaxY() {
+        return exploredMaxY;
+    }
+
+    // The words holding the explored bounds; everything outside them is 0
+    private int firstExploredWord() {
+        return exploredMaxX < 0 ? 0 : (exploredMinY * width + exploredMinX) >>> 6;
+    }
+
+    private int exploredWordCount() {
+        return exploredMaxX < 0 ? 0 : ((exploredMaxY * width + exploredMaxX) >>> 6) - firstExploredWord() + 1;
+    }
+
+    /**
+     * Upper bound of the bytes {@link #writeState} needs.
+     */
+    int getStateSize() {
+        return 24 + exploredWordCount() * 8;
+    }
+
+    /**
+     * Writes the explored tiles, for {@link GameSnapshot}: their bounds and the words of the bitset between them.
+     */
+    void writeState(ByteBuffer out) {
+        int first = firstExploredWord();
+        int count = exploredWordCount();
+        out.putInt(exploredMinX);
+        out.putInt(exploredMinY);
+        out.putInt(exploredMaxX);
+        out.putInt(exploredMaxY);
+        out.putInt(first);
+        out.putInt(count);
+        out.asLongBuffer().put(explored, first, count);
+        out.position(out.position() + count * 8);
+    }
+
+    /**
+     * Restores what {@link #writeState} wrote on the same map. The visible tiles are recomputed on the next update.
+     */
+    void readState(ByteBuffer in) {
+        int minX = in.getInt();
+        int minY = in.getInt();
+        int maxX = in.getInt();
+        int maxY = in.getInt();
+        int first = in.getInt();
+        int count = in.getInt();
+        if (first < 0 || count < 0 || count > explored.length - first) {
+            throw new IllegalArgumentException("Snapshot has " + count + " explored words at " + first
+                    + ", the map " + explored.length);
+        }
+        if (maxX >= 0 && (minX < 0 || minX > maxX || maxX >= width || minY < 0 || minY > maxY || maxY >= height)) {
+            throw new IllegalArgumentException("Snapshot has explored bounds outside the map");
+        }
+        Arrays.fill(explored, 0);
+        in.asLongBuffer().get(explored, first, count);
+        in.position(in.position() + count * 8);
+        boolean empty = maxX < 0;
+        exploredMinX = empty ? Integer.MAX_VALUE : minX;
+        exploredMinY = empty ? Integer.MAX_VALUE : minY;
+        exploredMaxX = empty ? -1 : maxX;
+        exploredMaxY = empty ? -1 : maxY;
+        viewerX = viewerY = Integer.MIN_VALUE;
+    }
+}
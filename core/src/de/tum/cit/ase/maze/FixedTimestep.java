@@ -0,0 +1,99 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Turns variable frame times into a whole number of fixed simulation ticks.
+ * Leftover time is kept in an accumulator and exposed as {@link #getAlpha()} so rendering can
+ * interpolate between the last two ticks. At most {@code maxTicksPerFrame} ticks run per frame;
+ * time beyond that is dropped so a slow machine falls behind instead of spiralling.
+ */
+public class FixedTimestep {
+    public static final int DEFAULT_TICK_RATE = 60;
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+
+    private float tickSeconds;
+    private int maxTicksPerFrame;
+    private float timeScale = 1f;
+    private float accumulator;
+    private long ticks;
+    private float droppedSeconds;
+
+    public FixedTimestep() {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_TICKS_PER_FRAME);
+    }
+
+    public FixedTimestep(int ticksPerSecond, int maxTicksPerFrame) {
+        setTickRate(ticksPerSecond);
+        setMaxTicksPerFrame(maxTicksPerFrame);
+    }
+
+    /**
+     * Adds the time of one frame.
+     *
+     * @param delta frame time in seconds
+     * @return how many ticks the simulation has to run for this frame
+     */
+    public int advance(float delta) {
+        accumulator += delta * timeScale;
+        int due = (int) (accumulator / tickSeconds);
+        int run = Math.min(due, maxTicksPerFrame);
+        accumulator -= run * tickSeconds;
+        if (due > run) {
+            float kept = accumulator % tickSeconds;
+            droppedSeconds += accumulator - kept;
+            accumulator = kept;
+        }
+        ticks += run;
+        return run;
+    }
+
+    /**
+     * How far the current frame is between the last tick and the next one, from 0 to 1.
+     */
+    public float getAlpha() {
+        return accumulator / tickSeconds;
+    }
+
+    public float getTickSeconds() {
+        return tickSeconds;
+    }
+
+    public void setTickRate(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + ticksPerSecond);
+        }
+        tickSeconds = 1f / ticksPerSecond;
+    }
+
+    public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+        if (maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("Max ticks per frame must be positive: " + maxTicksPerFrame);
+        }
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Runs the simulation faster (above 1) or slower (below 1) than real time.
+     * Raise the max ticks per frame along with it, or the extra ticks are dropped.
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    public float getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Total number of ticks run so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Simulation time skipped because of the catch-up cap, in seconds.
+     */
+    public float getDroppedSeconds() {
+        return droppedSeconds;
+    }
+}
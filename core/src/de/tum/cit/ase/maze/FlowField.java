@@ -0,0 +1,130 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra map towards one target tile, usually the player. Every walkable tile within
+ * {@code maxDistance} steps gets its distance to the target and the direction of the next tile on a
+ * shortest path, so any number of chasers can follow the field with one lookup each.
+ * The field only covers the square of side {@code 2 * maxDistance + 1} around the target, so its
+ * buffers are allocated once and have the same size on every map.
+ */
+public class FlowField {
+    /** Direction of tiles that are not reached, and of the target itself. */
+    public static final int NONE = -1;
+    public static final int RIGHT = 0;
+    public static final int LEFT = 1;
+    public static final int UP = 2;
+    public static final int DOWN = 3;
+
+    private static final int[] OFFSET_X = {1, -1, 0, 0};
+    private static final int[] OFFSET_Y = {0, 0, 1, -1};
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final TileMap tileMap;
+    private final int maxDistance;
+    private final int side;
+    private final int[] distances;
+    private final byte[] directions;
+    private final int[] queue;
+    private int originX, originY;
+    private int targetX = Integer.MIN_VALUE, targetY = Integer.MIN_VALUE;
+
+    public FlowField(TileMap tileMap, int maxDistance) {
+        this.tileMap = tileMap;
+        this.maxDistance = maxDistance;
+        side = 2 * maxDistance + 1;
+        distances = new int[side * side];
+        directions = new byte[side * side];
+        queue = new int[side * side];
+        Arrays.fill(distances, UNREACHED);
+        Arrays.fill(directions, (byte) NONE);
+    }
+
+    /**
+     * Points the field at a new target tile. Nothing is recomputed while the target stays on the same tile.
+     *
+     * @return true if the field was recomputed
+     */
+    public boolean update(int x, int y) {
+        if (x == targetX && y == targetY) {
+            return false;
+        }
+        targetX = x;
+        targetY = y;
+        originX = x - maxDistance;
+        originY = y - maxDistance;
+        Arrays.fill(distances, UNREACHED);
+        Arrays.fill(directions, (byte) NONE);
+        if (!tileMap.isInside(x, y) || !TileMap.isWalkable(tileMap.get(x, y))) {
+            return true;
+        }
+        // Breadth-first search, every step costs the same
+        int start = maxDistance * side + maxDistance;
+        distances[start] = 0;
+        queue[0] = start;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int cell = queue[head++];
+            int distance = distances[cell];
+            if (distance == maxDistance) {
+                continue;
+            }
+            // Cells closer than maxDistance are never on the window border, so neighbours stay inside
+            int cellX = cell % side;
+            int cellY = cell / side;
+            for (int direction = 0; direction < 4; direction++) {
+                int nextX = cellX + OFFSET_X[direction];
+                int nextY = cellY + OFFSET_Y[direction];
+                int next = nextY * side + nextX;
+                if (distances[next] != UNREACHED
+                        || !tileMap.isInside(originX + nextX, originY + nextY)
+                        || !TileMap.isWalkable(tileMap.get(originX + nextX, originY + nextY))) {
+                    continue;
+                }
+                distances[next] = distance + 1;
+                // Neighbours step back the way the search came
+                directions[next] = (byte) (direction ^ 1);
+                queue[tail++] = next;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The direction to walk from a tile towards the target, one of the direction constants or {@link #NONE}.
+     */
+    public int getDirection(int x, int y) {
+        int localX = x - originX;
+        int localY = y - originY;
+        if (localX < 0 || localY < 0 || localX >= side || localY >= side) {
+            return NONE;
+        }
+        return directions[localY * side + localX];
+    }
+
+    /**
+     * Steps from a tile to the target, or -1 if the target is not within reach.
+     */
+    public int getDistance(int x, int y) {
+        int localX = x - originX;
+        int localY = y - originY;
+        if (localX < 0 || localY < 0 || localX >= side || localY >= side) {
+            return -1;
+        }
+        int distance = distances[localY * side + localX];
+        return distance == UNREACHED ? -1 : distance;
+    }
+
+    public static int offsetX(int direction) {
+        return OFFSET_X[direction];
+    }
+
+    public static int offsetY(int direction) {
+        return OFFSET_Y[direction];
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+}
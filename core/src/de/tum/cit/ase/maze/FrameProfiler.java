@@ -0,0 +1,202 @@
+package de.tum.cit.ase.maze;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures where the time of a frame goes. A frame is split into phases by calling {@link #mark} at the end
+ * of each phase; together with the batch counters, heap use and GC counts every frame becomes one sample.
+ * The last {@link #HISTORY} samples are kept in ring buffers for percentiles, and samples can be streamed
+ * to a CSV file. While disabled every call returns right away, so it can stay in the render loop.
+ */
+public class FrameProfiler {
+    public static final int INPUT = 0;
+    public static final int UPDATE = 1;
+    public static final int CAMERA = 2;
+    public static final int DRAW = 3;
+    public static final int FLUSH = 4;
+    public static final int PHASES = 5;
+    public static final String[] PHASE_NAMES = {"input", "update", "camera", "draw", "flush"};
+    /** Number of frames kept for percentiles and graphs. */
+    public static final int HISTORY = 240;
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final Runtime runtime = Runtime.getRuntime();
+    // Nanoseconds per phase, and for the whole frame in the last row, ring buffers of HISTORY frames
+    private final long[][] phaseNanos = new long[PHASES + 1][HISTORY];
+    private final long[] scratch = new long[HISTORY];
+    private boolean enabled;
+    private long frameStart, lastMark;
+    private long frames;
+    private int renderCalls, textureBinds;
+    private long heapUsed, gcCount, gcMillis;
+    private BufferedWriter csv;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns measuring on or off. Turning it on starts a fresh history.
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            for (long[] phase : phaseNanos) {
+                Arrays.fill(phase, 0);
+            }
+            frames = 0;
+        }
+        this.enabled = enabled;
+        if (!enabled) {
+            stopCsv();
+        }
+    }
+
+    public void beginFrame() {
+        if (enabled) {
+            frameStart = System.nanoTime();
+            lastMark = frameStart;
+        }
+    }
+
+    /**
+     * Ends a phase; its time runs from the previous mark, or the start of the frame.
+     */
+    public void mark(int phase) {
+        if (enabled) {
+            long now = System.nanoTime();
+            phaseNanos[phase][slot()] = now - lastMark;
+            lastMark = now;
+        }
+    }
+
+    /**
+     * Ends the frame with the counters of the renderer.
+     *
+     * @param renderCalls  draw calls of the sprite batch
+     * @param textureBinds glBindTexture calls
+     */
+    public void endFrame(int renderCalls, int textureBinds) {
+        if (!enabled) {
+            return;
+        }
+        phaseNanos[PHASES][slot()] = System.nanoTime() - frameStart;
+        this.renderCalls = renderCalls;
+        this.textureBinds = textureBinds;
+        heapUsed = runtime.totalMemory() - runtime.freeMemory();
+        long count = 0, millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        gcCount = count;
+        gcMillis = millis;
+        if (csv != null) {
+            writeCsvLine();
+        }
+        frames++;
+    }
+
+    private int slot() {
+        return (int) (frames % HISTORY);
+    }
+
+    /**
+     * Starts writing one line per frame to a CSV file, replacing it if it exists.
+     */
+    public void startCsv(Path file) throws IOException {
+        stopCsv();
+        csv = Files.newBufferedWriter(file);
+        csv.write("frame");
+        for (String name : PHASE_NAMES) {
+            csv.write("," + name + "_us");
+        }
+        csv.write(",frame_us,render_calls,texture_binds,heap_bytes,gc_count,gc_ms\n");
+    }
+
+    public void stopCsv() {
+        if (csv == null) {
+            return;
+        }
+        try {
+            csv.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        csv = null;
+    }
+
+    public boolean isWritingCsv() {
+        return csv != null;
+    }
+
+    private void writeCsvLine() {
+        int slot = slot();
+        try {
+            csv.write(Long.toString(frames));
+            for (int phase = 0; phase <= PHASES; phase++) {
+                csv.write(',');
+                csv.write(Long.toString(phaseNanos[phase][slot] / 1000));
+            }
+            csv.write("," + renderCalls + "," + textureBinds + "," + heapUsed + "," + gcCount + "," + gcMillis + "\n");
+        } catch (IOException e) {
+            e.printStackTrace();
+            stopCsv();
+        }
+    }
+
+    /**
+     * A percentile of a phase over the kept frames, in nanoseconds.
+     *
+     * @param phase one of the phase constants, or {@link #PHASES} for the whole frame
+     */
+    public long getPercentile(int phase, int percentile) {
+        int count = getSampleCount();
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(phaseNanos[phase], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        return scratch[Math.min(count - 1, count * percentile / 100)];
+    }
+
+    /**
+     * Time of a phase in an earlier frame, 0 being the last one.
+     */
+    public long getSample(int phase, int framesAgo) {
+        return phaseNanos[phase][(int) ((frames - 1 - framesAgo) % HISTORY)];
+    }
+
+    public int getSampleCount() {
+        return (int) Math.min(frames, HISTORY);
+    }
+
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    public long getHeapUsed() {
+        return heapUsed;
+    }
+
+    /**
+     * Collections since the JVM started, summed over all collectors.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+}
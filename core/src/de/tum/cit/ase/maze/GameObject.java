@@ -4,13 +4,15 @@
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public abstract class GameObject {
+    public static final int TILE_SIZE = 16;
+
     protected TextureRegion textureRegion;
     protected float x, y;
 
     public GameObject(TextureRegion region, float x, float y) {
         this.textureRegion = region;
-        this.x = x * 16; // Assuming each tile is 16x16 pixels
-        this.y = y * 16;
+        this.x = x * TILE_SIZE; // Assuming each tile is 16x16 pixels
+        this.y = y * TILE_SIZE;
     }
 
     public void draw(SpriteBatch batch) {
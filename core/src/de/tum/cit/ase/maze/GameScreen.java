@@ -3,49 +3,92 @@
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.ScreenUtils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
 
 public class GameScreen implements Screen {
     private MazeRunnerGame game;
     private SpriteBatch batch;
     private OrthographicCamera camera;
-    private List<GameObject> gameObjects;
-    private Music gameMusic;
+    private ChunkGrid gameObjects;
+    private StaticTileLayer staticLayer;
+    // Used instead of the static layer on maps above STREAMING_TILES
+    private ChunkStreamer chunkStreamer;
+    private GLProfiler profiler;
+    private final RenderStats renderStats = new RenderStats();
+    private final FrameProfiler frameProfiler = new FrameProfiler();
+    private ProfilerOverlay profilerOverlay;
+    private final FixedTimestep timestep = new FixedTimestep();
     private Character character;
+    private MazeEngine engine;
+    // What the player sees; with fog of war on, everything else is dark or, once explored, dimmed
+    private FieldOfView fieldOfView;
+    private boolean fogOfWar;
+    // Part of the atlas, so the fog is drawn in the same batch as the tiles
+    private TextureRegion fogRegion;
+    // Writes the input of a played level; null while a replay is shown
+    private ReplayRecorder recorder;
+    // Drives the engine when a replay is shown instead of the keyboard
+    private ReplayPlayer replayPlayer;
+    private boolean replayPaused;
+    private int input;
+    // Where the level came from, for replays and snapshots
+    private String level = "";
+    private long seed;
+    private int mapChecksum;
+    // Two autosave buffers, so one can be filled while the other is still being written
+    private final GameSnapshot[] autosaves = new GameSnapshot[2];
+    private final Future<?>[] autosaveWrites = new Future<?>[2];
+    private int nextAutosave;
+    private long lastAutosaveTick;
     private int mazeWidth, mazeHeight;
-    private TextureLoader textureLoader,enemyLoader,characterLoader;
-    private final float CAMERA_PADDING = 0.1f;
-    private float spawnX, spawnY;
-    private int[][] mazeData;
+    private static final int CHUNKS_PER_LOAD_STEP = 16;
+    // How far the arrow keys jump in a replay, and the fastest replay speed
+    private static final int SEEK_SECONDS = 10;
+    private static final float MAX_REPLAY_SPEED = 16;
+    private static final int AUTOSAVE_SECONDS = 30;
+    // How dark explored tiles out of sight are; tiles never seen are black
+    private static final float EXPLORED_FOG = 0.6f;
+    // Maps with more tiles than this stream their static tiles instead of baking them all
+    private static final int STREAMING_TILES = 512 * 512;
+    // The character sprite is a tile wide, centred over the player's smaller collision box
+    private static final float CHARACTER_OFFSET = (1 - MazeEngine.PLAYER_SIZE) / 2;
+    private TileMap tileMap;
+    private TextureRegion enemyRegion;
     private float initialZoom;
     private float minCameraX, maxCameraX, minCameraY, maxCameraY;
-    public GameScreen(MazeRunnerGame game, int[][] mazeData) {
+    private final CameraFollower cameraFollower = new CameraFollower();
+    /**
+     * Creates the screen for a level prepared by the {@link LevelLoader}.
+     * Only cheap GL setup happens here, the static tiles are baked by {@link #loadStep()}.
+     */
+    public GameScreen(MazeRunnerGame game, LevelScene scene) {
         this.game = game;
-        this.mazeData = mazeData;
-        initialize();
+        this.tileMap = scene.getTileMap();
+        fogOfWar = game.isFogOfWar();
+        initialize(scene);
         initialZoom = calculateInitialZoom();
         calculateCameraConstraints();
     }
-    private void initialize() {
+    private void initialize(LevelScene scene) {
         batch = new SpriteBatch();
         camera = new OrthographicCamera();
         camera.setToOrtho(false);
         camera.zoom =0.5f;
-        gameObjects = new ArrayList<>();
-        textureLoader = new TextureLoader(Gdx.files.internal("basictiles.png"));
-        enemyLoader = new TextureLoader(Gdx.files.internal("mobs.png"));
-        characterLoader = new TextureLoader(Gdx.files.internal("character.png"));
-        gameMusic = Gdx.audio.newMusic(Gdx.files.internal("InGame.mp3"));
-        loadGameObjects(mazeData);
+        // Checks every GL call for errors while enabled, so it only runs with the frame profiler
+        profiler = new GLProfiler(Gdx.graphics);
+        profilerOverlay = new ProfilerOverlay(frameProfiler, game.getSkin().getFont("font"));
+        loadGameObjects(scene);
         calculateMazeDimensions();
     }
     private float calculateInitialZoom() {
@@ -72,102 +115,541 @@ private void calculateCameraConstraints() {
         minCameraY = paddingY;
         maxCameraY = mazeHeight - cameraHeight + paddingY;
     }
-    private void loadGameObjects(int[][] mazeData) {
-        TextureRegion wallRegion = textureLoader.getTextureRegion(0, 0, 16, 16);
-        TextureRegion keyRegion = textureLoader.getTextureRegion(6*16, 3*16, 16, 6);
-        TextureRegion entryRegion = textureLoader.getTextureRegion(2*16, 6*16, 16, 16);
-        TextureRegion exitRegion = textureLoader.getTextureRegion(0, 6*16, 16, 16);
-        TextureRegion trapRegion = textureLoader.getTextureRegion(2*16, 9*16, 16, 16);
-        TextureRegion enemyRegion = enemyLoader.getTextureRegion(4*16, 5*16, 16, 16);
-        for (int x = 0; x < mazeData.length; x++) {
-            for (int y = 0; y < mazeData[x].length; y++) {
-                switch (mazeData[x][y]) {
-                    case 0:
-                        gameObjects.add(new Wall(wallRegion, x, y));
-                        break;
-                    case 1:
-                        gameObjects.add(new Entry(entryRegion, x, y));
-                        setSpawnPoint(x+1,y);
-                        initializeCharacter();
-                        break;
-                    case 2:
-                        gameObjects.add(new Exit(exitRegion, x, y));
-                        break;
-                    case 3:
-                        gameObjects.add(new Trap(trapRegion, x, y));
-                        break;
-                    case 4:
-                        gameObjects.add(new Enemy(enemyRegion, x, y));
-                        break;
-                    case 5:
-                        gameObjects.add(new Key(keyRegion, x, y));
-                        break;
-                    default:
-                        break;
-                }
+    private void loadGameObjects(LevelScene scene) {
+        SpriteAtlas sprites = game.getSpriteAtlas();
+        // Walls, entries and exits are drawn straight from the tile map, only the rest become objects
+        TextureRegion[] staticRegions = new TextureRegion[TileMap.EXIT + 1];
+        staticRegions[TileMap.WALL] = sprites.findRegion(SpriteAtlas.WALL);
+        staticRegions[TileMap.ENTRY] = sprites.findRegion(SpriteAtlas.ENTRY);
+        staticRegions[TileMap.EXIT] = sprites.findRegion(SpriteAtlas.EXIT);
+        enemyRegion = sprites.findRegion(SpriteAtlas.ENEMY);
+        // The inner texels only, stretching the region must not sample the transparent padding around it
+        fogRegion = new TextureRegion(sprites.findRegion(SpriteAtlas.WHITE), 1, 1, 2, 2);
+        if (tileMap.getWidth() * tileMap.getHeight() > STREAMING_TILES) {
+            chunkStreamer = new ChunkStreamer(tileMap, staticRegions);
+        } else {
+            staticLayer = new StaticTileLayer(tileMap, staticRegions);
+        }
+        gameObjects = scene.getGameObjects();
+        fieldOfView = scene.getFieldOfView();
+        setEngine(scene.getEngine());
+        if (engine.hasPlayer()) {
+            initializeCharacter();
+        }
+    }
+
+    private void setEngine(MazeEngine engine) {
+        this.engine = engine;
+        engine.setListener(new MazeEngine.Listener() {
+            @Override
+            public void keyCollected(int tileX, int tileY) {
+                gameObjects.removeAt(tileX, tileY);
             }
+        });
+    }
+
+    /**
+     * Tells the screen where its level came from, so replays and snapshots can load it again.
+     *
+     * @param level where the level came from, see {@link Replay#getLevel()}; empty if it cannot be loaded again
+     * @param seed  the seed of a generated level, otherwise 0
+     */
+    public void setLevelSource(String level, long seed) {
+        this.level = level;
+        this.seed = seed;
+        mapChecksum = Replay.checksum(tileMap);
+    }
+
+    /**
+     * Whether the level can be left and continued later from a {@link GameSnapshot}.
+     */
+    public boolean isResumable() {
+        return !level.isEmpty() && replayPlayer == null;
+    }
+
+    /**
+     * The current state of the level, see {@link #isResumable()}.
+     */
+    public GameSnapshot takeSnapshot() {
+        GameSnapshot snapshot = new GameSnapshot(level, seed, mapChecksum, engine, fieldOfView);
+        snapshot.capture(engine, fieldOfView);
+        return snapshot;
+    }
+
+    /**
+     * Continues a level from a snapshot taken on the same map. Call it right after loading, before the first frame.
+     *
+     * @return false if the snapshot could not be restored; the level then starts from the beginning
+     */
+    public boolean restoreSnapshot(GameSnapshot snapshot) {
+        boolean restored = true;
+        try {
+            snapshot.restore(engine, fieldOfView);
+        } catch (IOException e) {
+            System.out.println("Could not restore saved game: " + e.getMessage());
+            // Whatever was half restored is replaced, the scene's map itself is never changed
+            setEngine(new MazeEngine(tileMap));
+            fieldOfView = new FieldOfView(tileMap);
+            restored = false;
+        }
+        lastAutosaveTick = engine.getTicks();
+        rebuildGameObjects();
+        jumpCharacter();
+        return restored;
+    }
+
+    /**
+     * Records the player's input from the first tick on, so the level can be replayed, see {@link Replay}.
+     */
+    public void startRecording(Path file) {
+        try {
+            recorder = new ReplayRecorder(file, level, seed, tileMap, Math.round(1 / timestep.getTickSeconds()));
+        } catch (IOException e) {
+            System.out.println("Could not record replay: " + e.getMessage());
         }
     }
-    private void setSpawnPoint(float x, float y) {
-        spawnX = x;
-        spawnY = y;
+
+    /**
+     * Shows a replay instead of letting the player play. The arrow keys seek and change the speed, space pauses.
+     *
+     * @throws IllegalArgumentException if the replay was recorded on another map
+     */
+    public void playReplay(Replay replay) {
+        replayPlayer = new ReplayPlayer(replay, tileMap);
+        timestep.setTickRate(replay.getTickRate());
+        setEngine(replayPlayer.getEngine());
     }
-    private void initializeCharacter() {
-        TextureRegion characterRegion = characterLoader.getTextureRegion(0, 0, 16, 16); // Adjust coordinates and size as needed
 
-        // If the character has multiple frames for animation, split the texture and create an animation
-        // Otherwise, just use a single frame as below
-        Animation<TextureRegion> characterAnimation = new Animation<>(0.1f, characterRegion);
+    /**
+     * Does the next slice of the GL side of loading. Called once per frame by the {@link LevelLoader}
+     * until it returns true; the screen must not be shown before that.
+     *
+     * @return true once the level is ready to be rendered
+     */
+    public boolean loadStep() {
+        if (chunkStreamer != null) {
+            // Only the chunks around the start are needed before the first frame
+            int chunkX = (int) (engine.getPlayerX() / ChunkGrid.CHUNK_TILES);
+            int chunkY = (int) (engine.getPlayerY() / ChunkGrid.CHUNK_TILES);
+            chunkStreamer.update(chunkX - 2, chunkY - 2, chunkX + 2, chunkY + 2, 0, 0);
+            return chunkStreamer.isIdle();
+        }
+        return staticLayer.build(CHUNKS_PER_LOAD_STEP);
+    }
 
-        character = new Character(characterAnimation, spawnX * 16, spawnY * 16); // Position character at spawn point
+    public float getLoadProgress() {
+        return staticLayer != null ? staticLayer.getBuildProgress() : chunkStreamer.getLoadProgress();
+    }
+    private void initializeCharacter() {
+        Animation<TextureRegion> characterAnimation = game.getCharacterDownAnimation();
+        character = new Character(characterAnimation,
+                engine.getPlayerX() - CHARACTER_OFFSET, engine.getPlayerY() - CHARACTER_OFFSET);
     }
     @Override
     public void render(float delta) {
         // Clear the screen, update the game state, etc.
         ScreenUtils.clear(0, 0, 0, 1);
-        handleInput(delta);
-            if (character != null) {
-                character.update(delta); // Update character state
-                updateCameraPosition(delta);
-            }
+        frameProfiler.beginFrame();
+        if (handleInput(delta)) {
+            // The level was left and this screen disposed
+            return;
+        }
+        frameProfiler.mark(FrameProfiler.INPUT);
+        // The simulation advances in fixed ticks, independent of the frame rate
+        int ticks = timestep.advance(replayPaused ? 0 : delta);
+        for (int i = 0; i < ticks; i++) {
+            tick(timestep.getTickSeconds());
+        }
+        if (engine.getState() != MazeEngine.State.PLAYING || replayPlayer != null && replayPlayer.isFinished()) {
+            endLevel();
+            return;
+        }
+        boolean dark = isDark();
+        if (dark) {
+            // Recomputed only when the player entered another tile
+            fieldOfView.update((int) (engine.getPlayerX() + MazeEngine.PLAYER_SIZE / 2),
+                    (int) (engine.getPlayerY() + MazeEngine.PLAYER_SIZE / 2));
+        }
+        frameProfiler.mark(FrameProfiler.UPDATE);
+        float alpha = timestep.getAlpha();
+        if (character != null) {
+            camera.position.x = cameraFollower.getX(alpha);
+            camera.position.y = cameraFollower.getY(alpha);
+        }
         camera.update();
+        renderStats.reset();
+        float halfWidth = camera.viewportWidth * camera.zoom / 2;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2;
+        gameObjects.setView(camera.position.x - halfWidth, camera.position.y - halfHeight,
+                camera.position.x + halfWidth, camera.position.y + halfHeight);
+        frameProfiler.mark(FrameProfiler.CAMERA);
+        // In the dark, tiles never seen are not drawn at all, only the chunks over explored tiles
+        int minChunkX = gameObjects.getMinChunkX(), minChunkY = gameObjects.getMinChunkY();
+        int maxChunkX = gameObjects.getMaxChunkX(), maxChunkY = gameObjects.getMaxChunkY();
+        if (dark) {
+            minChunkX = Math.max(minChunkX, fieldOfView.getExploredMinX() / ChunkGrid.CHUNK_TILES);
+            minChunkY = Math.max(minChunkY, fieldOfView.getExploredMinY() / ChunkGrid.CHUNK_TILES);
+            maxChunkX = Math.min(maxChunkX, Math.floorDiv(fieldOfView.getExploredMaxX(), ChunkGrid.CHUNK_TILES));
+            maxChunkY = Math.min(maxChunkY, Math.floorDiv(fieldOfView.getExploredMaxY(), ChunkGrid.CHUNK_TILES));
+        }
+        // Immovable tiles come from the prebuilt cache, only dynamic objects go through the batch
+        if (staticLayer != null) {
+            int drawnStatic = staticLayer.draw(camera.combined, minChunkX, minChunkY, maxChunkX, maxChunkY);
+            renderStats.addDrawn(drawnStatic);
+            renderStats.addSkipped(staticLayer.size() - drawnStatic);
+        }
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
-        for (GameObject gameObject : gameObjects) {
-            gameObject.draw(batch);
+        if (chunkStreamer != null) {
+            chunkStreamer.update(gameObjects.getMinChunkX(), gameObjects.getMinChunkY(),
+                    gameObjects.getMaxChunkX(), gameObjects.getMaxChunkY(),
+                    cameraFollower.getVelocityX(), cameraFollower.getVelocityY());
+            int drawnStatic = chunkStreamer.draw(batch, minChunkX, minChunkY, maxChunkX, maxChunkY);
+            renderStats.addDrawn(drawnStatic);
+            renderStats.addSkipped(chunkStreamer.size() - drawnStatic);
+        }
+        // Keys, traps and enemies out of sight are skipped
+        int drawn = gameObjects.draw(batch, dark ? fieldOfView : null);
+        renderStats.addDrawn(drawn);
+        renderStats.addSkipped(gameObjects.size() - drawn);
+        int drawnEnemies = drawEnemies(camera.position.x - halfWidth, camera.position.y - halfHeight,
+                camera.position.x + halfWidth, camera.position.y + halfHeight, alpha, dark);
+        renderStats.addDrawn(drawnEnemies);
+        renderStats.addSkipped(engine.getEnemyCount() - drawnEnemies);
+        if (dark) {
+            renderStats.addDrawn(drawFog(camera.position.x - halfWidth, camera.position.y - halfHeight,
+                    camera.position.x + halfWidth, camera.position.y + halfHeight));
         }
         if (character != null) {
-            character.draw(batch);
+            character.draw(batch, alpha);
         }
+        frameProfiler.mark(FrameProfiler.DRAW);
         batch.end();
+        frameProfiler.mark(FrameProfiler.FLUSH);
+        renderStats.setBatchFlushes(batch.renderCalls);
+        int textureBinds = profiler.isEnabled() ? profiler.getTextureBindings() : 0;
+        renderStats.setTextureBinds(textureBinds);
+        frameProfiler.endFrame(batch.renderCalls, textureBinds);
+        // Drawn after the sample was taken and before the GL counters are reset, so no frame is charged for it
+        if (frameProfiler.isEnabled()) {
+            profilerOverlay.draw(batch, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        }
+        profiler.reset();
+    }
+    /**
+     * Draws the enemies that overlap the view, between their previous and current tick position.
+     *
+     * @param dark whether to skip the enemies out of the player's sight
+     * @return the number of enemies drawn
+     */
+    private int drawEnemies(float left, float bottom, float right, float top, float alpha, boolean dark) {
+        float offset = (1 - MazeEngine.ENEMY_SIZE) / 2;
+        int drawn = 0;
+        for (int i = 0; i < engine.getEnemyCount(); i++) {
+            float x = (MathUtils.lerp(engine.getEnemyPreviousX(i), engine.getEnemyX(i), alpha) - offset) * GameObject.TILE_SIZE;
+            float y = (MathUtils.lerp(engine.getEnemyPreviousY(i), engine.getEnemyY(i), alpha) - offset) * GameObject.TILE_SIZE;
+            if (x + GameObject.TILE_SIZE < left || x > right || y + GameObject.TILE_SIZE < bottom || y > top) {
+                continue;
+            }
+            if (dark && !fieldOfView.isVisible((int) (engine.getEnemyX(i) + MazeEngine.ENEMY_SIZE / 2),
+                    (int) (engine.getEnemyY(i) + MazeEngine.ENEMY_SIZE / 2))) {
+                continue;
+            }
+            batch.draw(enemyRegion, x, y);
+            drawn++;
+        }
+        return drawn;
     }
-    private void updateCameraPosition(float delta) {
-        float lerp = 0.1f; // For smooth camera movement
-        float cameraX = camera.position.x + (character.getX() - camera.position.x) * lerp;
-        float cameraY = camera.position.y + (character.getY() - camera.position.y) * lerp;
-        // Clamp camera position to keep character within the middle 80% of the screen
-        float cameraMinX = mazeWidth * CAMERA_PADDING;
-        float cameraMaxX = mazeWidth * (1 - CAMERA_PADDING);
-        float cameraMinY = mazeHeight * CAMERA_PADDING;
-        float cameraMaxY = mazeHeight * (1 - CAMERA_PADDING);
 
-        camera.position.x = MathUtils.clamp(cameraX, cameraMinX, cameraMaxX);
-        camera.position.y = MathUtils.clamp(cameraY, cameraMinY, cameraMaxY);
+    /**
+     * Covers the tiles in view that the player does not see: black if never seen, dimmed if explored.
+     * Runs of tiles in the same state along a row are covered by one stretched quad.
+     *
+     * @return the number of quads drawn
+     */
+    private int drawFog(float left, float bottom, float right, float top) {
+        int minX = Math.max(0, (int) Math.floor(left / GameObject.TILE_SIZE));
+        int minY = Math.max(0, (int) Math.floor(bottom / GameObject.TILE_SIZE));
+        int maxX = Math.min(tileMap.getWidth() - 1, (int) Math.floor(right / GameObject.TILE_SIZE));
+        int maxY = Math.min(tileMap.getHeight() - 1, (int) Math.floor(top / GameObject.TILE_SIZE));
+        int quads = 0;
+        for (int y = minY; y <= maxY; y++) {
+            int x = minX;
+            while (x <= maxX) {
+                float fog = fogAt(x, y);
+                int start = x;
+                while (x <= maxX && fogAt(x, y) == fog) {
+                    x++;
+                }
+                if (fog > 0) {
+                    batch.setColor(0, 0, 0, fog);
+                    batch.draw(fogRegion, start * GameObject.TILE_SIZE, y * GameObject.TILE_SIZE,
+                            (x - start) * GameObject.TILE_SIZE, GameObject.TILE_SIZE);
+                    quads++;
+                }
+            }
+        }
+        batch.setColor(1, 1, 1, 1);
+        return quads;
+    }
+
+    private float fogAt(int x, int y) {
+        if (fieldOfView.isVisible(x, y)) {
+            return 0;
+        }
+        return fieldOfView.isExplored(x, y) ? EXPLORED_FOG : 1;
+    }
+
+    // Fog of war needs a player to see from
+    private boolean isDark() {
+        return fogOfWar && character != null;
+    }
+
+    /**
+     * Turns the fog of war on or off; with it off the whole maze is shown.
+     */
+    public void setFogOfWar(boolean fogOfWar) {
+        this.fogOfWar = fogOfWar;
+    }
+
+    public boolean isFogOfWar() {
+        return fogOfWar;
+    }
+
+    /**
+     * What the player sees and has explored so far.
+     */
+    public FieldOfView getFieldOfView() {
+        return fieldOfView;
+    }
+
+    /**
+     * Runs one fixed simulation step.
+     */
+    private void tick(float tickSeconds) {
+        if (replayPlayer != null) {
+            replayPlayer.step();
+        } else {
+            recordInput();
+            engine.tick(tickSeconds);
+            if (isResumable() && engine.getTicks() - lastAutosaveTick >= AUTOSAVE_SECONDS / tickSeconds) {
+                autosave();
+            }
+        }
+        if (character != null) {
+            character.update(tickSeconds);
+            character.setPosition((engine.getPlayerX() - CHARACTER_OFFSET) * GameObject.TILE_SIZE,
+                    (engine.getPlayerY() - CHARACTER_OFFSET) * GameObject.TILE_SIZE);
+            cameraFollower.follow(character.getX(), character.getY());
+        }
+    }
+
+    // Captures the state into a free buffer and has it written in the background; skipped if both are busy
+    private void autosave() {
+        int slot = nextAutosave;
+        if (autosaveWrites[slot] != null && !autosaveWrites[slot].isDone()) {
+            return;
+        }
+        if (autosaves[slot] == null) {
+            autosaves[slot] = new GameSnapshot(level, seed, mapChecksum, engine, fieldOfView);
+        }
+        autosaves[slot].capture(engine, fieldOfView);
+        autosaveWrites[slot] = game.writeSave(autosaves[slot]);
+        nextAutosave = 1 - slot;
+        lastAutosaveTick = engine.getTicks();
+    }
+
+    private void recordInput() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.record(input);
+        } catch (IOException e) {
+            System.out.println("Stopped recording replay: " + e.getMessage());
+            stopRecording();
+        }
+    }
+
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.out.println("Could not finish replay: " + e.getMessage());
+        }
+        recorder = null;
+    }
+
+    // Starts or stops streaming the profiler samples to profile-<time>.csv in the user directory
+    private void toggleProfileRecording() {
+        if (frameProfiler.isWritingCsv()) {
+            frameProfiler.stopCsv();
+            return;
+        }
+        Path file = MazeRunnerGame.USER_DIRECTORY.resolve("profile-" + System.currentTimeMillis() + ".csv");
+        try {
+            Files.createDirectories(file.getParent());
+            frameProfiler.startCsv(file);
+            System.out.println("Recording frame profile to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Could not write frame profile: " + e.getMessage());
+        }
+    }
+
+    private void endLevel() {
+        if (replayPlayer != null) {
+            System.out.println("Replay finished after " + replayPlayer.getTick() + " ticks: " + engine.getState());
+        } else {
+            System.out.println(engine.getState() == MazeEngine.State.WON ? "Level completed!" : "Game over!");
+        }
+        if (replayPlayer == null) {
+            // Nothing left to continue
+            game.deleteSave();
+        }
+        if (engine.getState() == MazeEngine.State.WON && replayPlayer == null) {
+            game.getAudio().playSound(AudioManager.VICTORY_SOUND);
+        }
+        game.setPaused(false);
+        game.goToMenu(); // Disposes this screen
+    }
+
+    public MazeEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * The clock driving the simulation; its tick rate and time scale can be changed at any time.
+     */
+    public FixedTimestep getTimestep() {
+        return timestep;
+    }
+
+    /**
+     * Counters of the last rendered frame, e.g. how many objects were culled.
+     */
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+    /**
+     * The frame profiler behind the F3 overlay.
+     */
+    public FrameProfiler getFrameProfiler() {
+        return frameProfiler;
     }
     private void calculateMazeDimensions() {
-        mazeWidth = mazeData.length * 16; // Assuming each cell is 16 pixels wide
-        mazeHeight = mazeData[0].length * 16; // Assuming each cell is 16 pixels high
+        mazeWidth = tileMap.getWidth() * GameObject.TILE_SIZE;
+        mazeHeight = tileMap.getHeight() * GameObject.TILE_SIZE;
+        // Keeps the character within the middle 80% of the maze
+        cameraFollower.setBounds(mazeWidth, mazeHeight);
     }
     public void playGameMusic() {
-        if (gameMusic != null) {
-            gameMusic.setLooping(true);
-            gameMusic.play();
-        }
+        game.getAudio().playMusic(AudioManager.GAME_MUSIC);
     }
-    private void handleInput(float delta) {
+    /**
+     * Reads the keyboard for this frame.
+     *
+     * @return true if the level was left, this screen is disposed then and must not render any further
+     */
+    private boolean handleInput(float delta) {
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
-            game.setPaused(true);
-            game.goToMenu();
+            if (replayPlayer != null) {
+                // A replay is not paused, just left
+                game.setPaused(false);
+                game.goToMenu();
+                return true;
+            }
+            game.pauseGame();
+            return true;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            frameProfiler.setEnabled(!frameProfiler.isEnabled());
+            if (frameProfiler.isEnabled()) {
+                profiler.enable();
+            } else {
+                profiler.disable();
+            }
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F4) && frameProfiler.isEnabled()) {
+            toggleProfileRecording();
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F6)) {
+            fogOfWar = !fogOfWar;
+            game.setFogOfWar(fogOfWar);
+        }
+        if (replayPlayer != null) {
+            handleReplayInput();
+            return false;
+        }
+        input = 0;
+        if (Gdx.input.isKeyPressed(Input.Keys.UP) || Gdx.input.isKeyPressed(Input.Keys.W)) {
+            input |= MazeEngine.INPUT_UP;
+        }
+        if (Gdx.input.isKeyPressed(Input.Keys.DOWN) || Gdx.input.isKeyPressed(Input.Keys.S)) {
+            input |= MazeEngine.INPUT_DOWN;
+        }
+        if (Gdx.input.isKeyPressed(Input.Keys.LEFT) || Gdx.input.isKeyPressed(Input.Keys.A)) {
+            input |= MazeEngine.INPUT_LEFT;
+        }
+        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT) || Gdx.input.isKeyPressed(Input.Keys.D)) {
+            input |= MazeEngine.INPUT_RIGHT;
+        }
+        engine.setInput(input);
+        return false;
+    }
+
+    private void handleReplayInput() {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
+            replayPaused = !replayPaused;
+        }
+        float speed = timestep.getTimeScale();
+        if (Gdx.input.isKeyJustPressed(Input.Keys.UP)) {
+            speed = Math.min(MAX_REPLAY_SPEED, speed * 2);
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.DOWN)) {
+            speed = Math.max(1 / MAX_REPLAY_SPEED, speed / 2);
+        }
+        timestep.setTimeScale(speed);
+        timestep.setMaxTicksPerFrame(Math.max(FixedTimestep.DEFAULT_MAX_TICKS_PER_FRAME,
+                (int) Math.ceil(FixedTimestep.DEFAULT_MAX_TICKS_PER_FRAME * speed)));
+        int seek = 0;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.LEFT)) {
+            seek -= SEEK_SECONDS;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.RIGHT)) {
+            seek += SEEK_SECONDS;
+        }
+        if (seek != 0) {
+            seekReplay(replayPlayer.getTick() + seek * replayPlayer.getReplay().getTickRate());
+        }
+    }
+
+    private void seekReplay(int tick) {
+        if (replayPlayer.seek(tick)) {
+            // A new engine started over, with all keys back on the map
+            setEngine(replayPlayer.getEngine());
+            rebuildGameObjects();
+        }
+        // Keys collected while catching up were removed through the listener
+        jumpCharacter();
+    }
+
+    // The keys and traps still on the engine's map
+    private void rebuildGameObjects() {
+        SpriteAtlas sprites = game.getSpriteAtlas();
+        gameObjects = LevelScene.buildGameObjects(engine,
+                sprites.findRegion(SpriteAtlas.KEY), sprites.findRegion(SpriteAtlas.TRAP));
+    }
+
+    // Moves the character and camera to the player without sliding over from the old position
+    private void jumpCharacter() {
+        if (character != null) {
+            character.setPosition((engine.getPlayerX() - CHARACTER_OFFSET) * GameObject.TILE_SIZE,
+                    (engine.getPlayerY() - CHARACTER_OFFSET) * GameObject.TILE_SIZE);
+            character.update(0);
+            cameraFollower.reset(character.getX(), character.getY());
         }
     }
     @Override
@@ -192,6 +674,7 @@ public void show() {
         }
         if (character != null) {
             camera.position.set(character.getX(), character.getY(), 0);
+            cameraFollower.reset(character.getX(), character.getY());
             camera.zoom = 0.4f; // Adjust this value for desired zoom level
         }
         camera.update();
@@ -199,15 +682,20 @@ public void show() {
 
     @Override
     public void hide() {
-        if (gameMusic != null) {
-            gameMusic.stop();
-            gameMusic.dispose();
-        }
     }
 
     @Override
     public void dispose() {
-        textureLoader.dispose();
+        if (staticLayer != null) {
+            staticLayer.dispose();
+        }
+        if (chunkStreamer != null) {
+            chunkStreamer.dispose();
+        }
+        profiler.disable();
+        frameProfiler.setEnabled(false);
+        profilerOverlay.dispose();
+        stopRecording();
       batch.dispose();
     }
 }
@@ -0,0 +1,187 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The state of a level in play, as a few bytes, so the game can be paused without keeping the
+ * {@link GameScreen} and its GL resources, autosaved, and continued after a restart.
+ * It names the level like a {@link Replay} does and holds the {@link MazeEngine} state: player, lives,
+ * timers, enemies and the keys collected so far, and the tiles the {@link FieldOfView} has explored. To resume, the level is loaded again and the state restored
+ * into its new engine and field of view. The buffer is allocated once, so {@link #capture} only copies a few fields into it.
+ */
+public class GameSnapshot {
+    public static final String EXTENSION = "snapshot";
+    private static final int MAGIC = 0x4D5A534E;
+    // Bump when the engine or explored state changes
+    private static final byte VERSION = 2;
+    // Room for growing key counts or explored tiles before the buffer has to be reallocated
+    private static final int SPARE_BYTES = 256;
+
+    private final String level;
+    private final byte[] levelBytes;
+    private final long seed;
+    private final int width, height, checksum;
+    private ByteBuffer buffer;
+
+    /**
+     * An empty snapshot for a level, with room for the given engine's and field of view's state.
+     *
+     * @param level    where the level came from, see {@link Replay#getLevel()}
+     * @param seed     the seed of a generated level, otherwise 0
+     * @param checksum {@link Replay#checksum} of the level's map before it was played
+     */
+    public GameSnapshot(String level, long seed, int checksum, MazeEngine engine, FieldOfView fieldOfView) {
+        this.level = level;
+        this.levelBytes = level.getBytes(StandardCharsets.UTF_8);
+        this.seed = seed;
+        this.width = engine.getTileMap().getWidth();
+        this.height = engine.getTileMap().getHeight();
+        this.checksum = checksum;
+        int size = headerSize() + engine.getStateSize() + fieldOfView.getStateSize();
+        buffer = ByteBuffer.allocateDirect(size + SPARE_BYTES);
+        buffer.limit(0);
+    }
+
+    private GameSnapshot(String level, long seed, int width, int height, int checksum) {
+        this.level = level;
+        this.levelBytes = level.getBytes(StandardCharsets.UTF_8);
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.checksum = checksum;
+    }
+
+    private int headerSize() {
+        return 4 + 1 + 8 + 4 * 3 + 2 + levelBytes.length;
+    }
+
+    /**
+     * Replaces the contents with the engine's current state and the explored tiles.
+     */
+    public void capture(MazeEngine engine, FieldOfView fieldOfView) {
+        int size = headerSize() + engine.getStateSize() + fieldOfView.getStateSize();
+        if (size > buffer.capacity()) {
+            // Explored tiles keep growing, so leave room for a good deal more
+            buffer = ByteBuffer.allocateDirect(size + size / 2 + SPARE_BYTES);
+        }
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(seed);
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putInt(checksum);
+        buffer.putShort((short) levelBytes.length);
+        buffer.put(levelBytes);
+        engine.writeState(buffer);
+        fieldOfView.writeState(buffer);
+        buffer.flip();
+    }
+
+    /**
+     * Restores the captured state into an engine and field of view that were just created for the same map.
+     * If it fails, both may be half restored and have to be created again.
+     *
+     * @throws IOException           if the state is cut off or does not fit the map, e.g. a damaged save file
+     * @throws IllegalStateException if nothing was captured
+     */
+    public void restore(MazeEngine engine, FieldOfView fieldOfView) throws IOException {
+        if (isEmpty()) {
+            throw new IllegalStateException("Nothing captured yet");
+        }
+        ByteBuffer in = buffer.duplicate();
+        in.position(headerSize());
+        try {
+            engine.readState(in);
+            fieldOfView.readState(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot is cut off", e);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Snapshot does not fit the map: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return buffer.limit() == 0;
+    }
+
+    /**
+     * Whether the map is the one the snapshot was taken on.
+     */
+    public boolean matches(TileMap tileMap) {
+        return tileMap.getWidth() == width && tileMap.getHeight() == height && Replay.checksum(tileMap) == checksum;
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing it in one step so a crash never leaves half a save.
+     * May run on another thread as long as nothing is captured meanwhile.
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "snapshot", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer out = buffer.duplicate();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public static GameSnapshot read(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.remaining() < 5 || in.getInt() != MAGIC || in.get() != VERSION) {
+                throw new IOException("Not a snapshot of version " + VERSION);
+            }
+            long seed = in.getLong();
+            int width = in.getInt();
+            int height = in.getInt();
+            int checksum = in.getInt();
+            byte[] name = new byte[in.getShort() & 0xFFFF];
+            in.get(name);
+            GameSnapshot snapshot = new GameSnapshot(new String(name, StandardCharsets.UTF_8), seed, width, height, checksum);
+            snapshot.buffer = ByteBuffer.allocateDirect(in.capacity() + SPARE_BYTES);
+            snapshot.buffer.put(in.rewind()).flip();
+            return snapshot;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot is cut off: " + file, e);
+        }
+    }
+
+    /**
+     * Bytes in use, header included.
+     */
+    public int size() {
+        return buffer.limit();
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
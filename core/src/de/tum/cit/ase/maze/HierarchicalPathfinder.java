@@ -0,0 +1,602 @@
+package de.tum.cit.ase.maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical pathfinder (HPA*) for long queries on large maps, e.g. hints towards the exit.
+ * The map is cut into square clusters. Where two clusters share walkable border tiles, entrance nodes
+ * are placed on both sides, and the distances between the entrances of a cluster are computed once.
+ * A query searches this small graph and then refines the result into tiles, one cluster at a time.
+ * Results are cached; after {@link #tileChanged} only the clusters around the tile are rebuilt
+ * and only the cached paths through them are dropped.
+ * Not thread safe.
+ */
+public class HierarchicalPathfinder {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    // Entrances at least this wide get a node at both ends instead of one in the middle
+    private static final int WIDE_ENTRANCE = 6;
+    private static final int LATENCY_SAMPLES = 4096;
+    private static final int[] NO_PATH = new int[0];
+
+    private final TileMap tileMap;
+    private final int width;
+    private final int clusterSize, clustersX, clustersY;
+    // Upper bound of entrance nodes in one cluster; node keys are cluster * maxNodes + index
+    private final int maxNodes;
+    private final Cluster[] clusters;
+    // Connected component of every node key, so queries between separate areas fail right away
+    private final int[] components;
+    private final Map<Long, int[]> cache;
+    private final int[] nodeBuffer;
+
+    // Buffers of the breadth-first search inside one cluster
+    private final int[] localDistances, localParents, localQueue;
+    private final boolean[] localWalkable;
+    private Cluster walkableCluster;
+
+    // A* state by node key, plus the start and goal keys; an entry is only valid if its stamp is the current one
+    private final int startKey, goalKey;
+    private final int[] costs, parents, stamps, closed;
+    private int stamp;
+    // Binary min-heap of (estimate << 32 | node key)
+    private long[] heap = new long[256];
+    private int heapSize;
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long queries, cacheHits;
+
+    private static final class Cluster {
+        final int left, bottom, right, top;
+        int[] nodes = new int[0];
+        // nodes.length squared distances between the nodes, -1 if not connected inside the cluster
+        int[] distances = new int[0];
+
+        Cluster(int left, int bottom, int right, int top) {
+            this.left = left;
+            this.bottom = bottom;
+            this.right = right;
+            this.top = top;
+        }
+
+        int indexOf(int tile) {
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] == tile) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    public HierarchicalPathfinder(TileMap tileMap) {
+        this(tileMap, DEFAULT_CLUSTER_SIZE, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Builds the cluster graph. This visits every tile a few times, so do it while the level loads.
+     */
+    public HierarchicalPathfinder(TileMap tileMap, int clusterSize, int cacheSize) {
+        this.tileMap = tileMap;
+        this.width = tileMap.getWidth();
+        this.clusterSize = clusterSize;
+        clustersX = (tileMap.getWidth() + clusterSize - 1) / clusterSize;
+        clustersY = (tileMap.getHeight() + clusterSize - 1) / clusterSize;
+        // A border has at most one node per two tiles, entrances being separated by a blocked tile
+        maxNodes = 4 * ((clusterSize + 1) / 2);
+        nodeBuffer = new int[maxNodes];
+        localDistances = new int[clusterSize * clusterSize];
+        localParents = new int[clusterSize * clusterSize];
+        localQueue = new int[clusterSize * clusterSize];
+        localWalkable = new boolean[clusterSize * clusterSize];
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        clusters = new Cluster[clustersX * clustersY];
+        for (int cy = 0; cy < clustersY; cy++) {
+            for (int cx = 0; cx < clustersX; cx++) {
+                clusters[cy * clustersX + cx] = new Cluster(cx * clusterSize, cy * clusterSize,
+                        Math.min(tileMap.getWidth(), (cx + 1) * clusterSize),
+                        Math.min(tileMap.getHeight(), (cy + 1) * clusterSize));
+            }
+        }
+        for (Cluster cluster : clusters) {
+            buildCluster(cluster);
+        }
+        startKey = clusters.length * maxNodes;
+        goalKey = startKey + 1;
+        components = new int[startKey];
+        findComponents();
+        costs = new int[goalKey + 1];
+        parents = new int[goalKey + 1];
+        stamps = new int[goalKey + 1];
+        closed = new int[goalKey + 1];
+    }
+
+    /**
+     * Whether a path may lead over a tile: the {@link TileMap#isWalkable walkable} tiles and the exit,
+     * so paths can end there.
+     */
+    public static boolean isPassable(int tile) {
+        return tile == TileMap.EXIT || TileMap.isWalkable(tile);
+    }
+
+    private boolean isPassable(int x, int y) {
+        return tileMap.isInside(x, y) && isPassable(tileMap.get(x, y));
+    }
+
+    private void buildCluster(Cluster cluster) {
+        int[] nodes = nodeBuffer;
+        int count = 0;
+        // Entrances on all four borders, scanned the same way from both sides so the nodes pair up
+        count = addEntrances(nodes, count, cluster.left, cluster.bottom, 0, 1, cluster.top - cluster.bottom, -1, 0);
+        count = addEntrances(nodes, count, cluster.right - 1, cluster.bottom, 0, 1, cluster.top - cluster.bottom, 1, 0);
+        count = addEntrances(nodes, count, cluster.left, cluster.bottom, 1, 0, cluster.right - cluster.left, 0, -1);
+        count = addEntrances(nodes, count, cluster.left, cluster.top - 1, 1, 0, cluster.right - cluster.left, 0, 1);
+        cluster.nodes = Arrays.copyOf(nodes, count);
+        cluster.distances = new int[count * count];
+        for (int i = 0; i < count; i++) {
+            searchCluster(cluster, cluster.nodes[i], -1);
+            for (int j = 0; j < count; j++) {
+                cluster.distances[i * count + j] = localDistance(cluster, cluster.nodes[j]);
+            }
+        }
+    }
+
+    // Union-find over the entrance graph
+    private void findComponents() {
+        for (int key = 0; key < components.length; key++) {
+            components[key] = key;
+        }
+        for (int clusterIndex = 0; clusterIndex < clusters.length; clusterIndex++) {
+            Cluster cluster = clusters[clusterIndex];
+            int count = cluster.nodes.length;
+            for (int i = 0; i < count; i++) {
+                int key = clusterIndex * maxNodes + i;
+                for (int j = i + 1; j < count; j++) {
+                    if (cluster.distances[i * count + j] >= 0) {
+                        union(key, clusterIndex * maxNodes + j);
+                    }
+                }
+                // Only the right and upper neighbours, the others link to this cluster themselves
+                int tile = cluster.nodes[i];
+                if (tile % width + 1 < tileMap.getWidth() && clusterOf(tile + 1) != clusterIndex) {
+                    union(key, clusterOf(tile + 1) * maxNodes + clusters[clusterOf(tile + 1)].indexOf(tile + 1));
+                }
+                if (tile / width + 1 < tileMap.getHeight() && clusterOf(tile + width) != clusterIndex) {
+                    union(key, clusterOf(tile + width) * maxNodes + clusters[clusterOf(tile + width)].indexOf(tile + width));
+                }
+            }
+        }
+        for (int key = 0; key < components.length; key++) {
+            components[key] = find(key);
+        }
+    }
+
+    private int find(int key) {
+        while (components[key] != key) {
+            components[key] = components[components[key]];
+            key = components[key];
+        }
+        return key;
+    }
+
+    private void union(int a, int b) {
+        components[find(a)] = find(b);
+    }
+
+    // Walks one border of a cluster; (outX, outY) points to the neighbouring cluster
+    private int addEntrances(int[] nodes, int count, int x, int y, int stepX, int stepY, int length, int outX, int outY) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int tileX = x + i * stepX;
+            int tileY = y + i * stepY;
+            boolean open = i < length && isPassable(tileX, tileY) && isPassable(tileX + outX, tileY + outY);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    count = addNode(nodes, count, (y + runStart * stepY) * width + x + runStart * stepX);
+                    count = addNode(nodes, count, (y + runEnd * stepY) * width + x + runEnd * stepX);
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    count = addNode(nodes, count, (y + middle * stepY) * width + x + middle * stepX);
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    }
+
+    private static int addNode(int[] nodes, int count, int tile) {
+        for (int i = 0; i < count; i++) {
+            if (nodes[i] == tile) {
+                return count;
+            }
+        }
+        nodes[count] = tile;
+        return count + 1;
+    }
+
+    /**
+     * Breadth-first search inside one cluster, from a tile until the target tile or, with target -1,
+     * until the whole cluster is explored. Results stay in the local buffers.
+     */
+    private void searchCluster(Cluster cluster, int from, int target) {
+        loadWalkable(cluster);
+        int clusterWidth = cluster.right - cluster.left;
+        int clusterHeight = cluster.top - cluster.bottom;
+        Arrays.fill(localDistances, 0, clusterWidth * clusterHeight, -1);
+        int start = toLocal(cluster, from);
+        int end = target >= 0 ? toLocal(cluster, target) : -1;
+        localDistances[start] = 0;
+        localParents[start] = -1;
+        localQueue[0] = start;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int cell = localQueue[head++];
+            if (cell == end) {
+                return;
+            }
+            int cellX = cell % clusterWidth;
+            int distance = localDistances[cell] + 1;
+            if (cellX > 0) {
+                tail = visit(cell, cell - 1, distance, tail);
+            }
+            if (cellX < clusterWidth - 1) {
+                tail = visit(cell, cell + 1, distance, tail);
+            }
+            if (cell >= clusterWidth) {
+                tail = visit(cell, cell - clusterWidth, distance, tail);
+            }
+            if (cell < (clusterHeight - 1) * clusterWidth) {
+                tail = visit(cell, cell + clusterWidth, distance, tail);
+            }
+        }
+    }
+
+    private int visit(int cell, int next, int distance, int tail) {
+        if (localDistances[next] < 0 && localWalkable[next]) {
+            localDistances[next] = distance;
+            localParents[next] = cell;
+            localQueue[tail++] = next;
+        }
+        return tail;
+    }
+
+    // Copies the walkable flags of a cluster into a local buffer, unless they are already there
+    private void loadWalkable(Cluster cluster) {
+        if (walkableCluster == cluster) {
+            return;
+        }
+        int clusterWidth = cluster.right - cluster.left;
+        for (int y = cluster.bottom; y < cluster.top; y++) {
+            for (int x = cluster.left; x < cluster.right; x++) {
+                localWalkable[(y - cluster.bottom) * clusterWidth + x - cluster.left] = isPassable(tileMap.get(x, y));
+            }
+        }
+        walkableCluster = cluster;
+    }
+
+    private int localDistance(Cluster cluster, int tile) {
+        return localDistances[toLocal(cluster, tile)];
+    }
+
+    private int toLocal(Cluster cluster, int tile) {
+        return (tile / width - cluster.bottom) * (cluster.right - cluster.left) + tile % width - cluster.left;
+    }
+
+    private int toTile(Cluster cluster, int cell) {
+        int clusterWidth = cluster.right - cluster.left;
+        return (cluster.bottom + cell / clusterWidth) * width + cluster.left + cell % clusterWidth;
+    }
+
+    private int clusterOf(int tile) {
+        return (tile / width / clusterSize) * clustersX + tile % width / clusterSize;
+    }
+
+    /**
+     * Finds a path between two tiles. It is close to, but not always exactly, the shortest one.
+     *
+     * @return the tiles of the path as {@code y * width + x}, start and goal included, or null if there is none
+     */
+    public int[] findPath(int startX, int startY, int goalX, int goalY) {
+        long begin = System.nanoTime();
+        queries++;
+        int start = startY * width + startX;
+        int goal = goalY * width + goalX;
+        long key = (long) start << 32 | goal;
+        int[] path = cache.get(key);
+        if (path != null) {
+            cacheHits++;
+        } else {
+            path = isPassable(startX, startY) && isPassable(goalX, goalY) ? search(start, goal) : NO_PATH;
+            cache.put(key, path);
+        }
+        latencies[(int) ((queries - 1) % LATENCY_SAMPLES)] = System.nanoTime() - begin;
+        return path == NO_PATH ? null : path;
+    }
+
+    /**
+     * Number of steps between two tiles along {@link #findPath}, or -1 if they are not connected.
+     */
+    public int getDistance(int startX, int startY, int goalX, int goalY) {
+        int[] path = findPath(startX, startY, goalX, goalY);
+        return path == null ? -1 : path.length - 1;
+    }
+
+    private int[] search(int startTile, int goalTile) {
+        int startClusterIndex = clusterOf(startTile);
+        int goalClusterIndex = clusterOf(goalTile);
+        Cluster startCluster = clusters[startClusterIndex];
+        Cluster goalCluster = clusters[goalClusterIndex];
+        // Distances from the goal to the entrances of its cluster, the last edges of the graph
+        searchCluster(goalCluster, goalTile, -1);
+        int[] goalDistances = new int[goalCluster.nodes.length];
+        for (int i = 0; i < goalDistances.length; i++) {
+            goalDistances[i] = localDistance(goalCluster, goalCluster.nodes[i]);
+        }
+        searchCluster(startCluster, startTile, -1);
+        boolean direct = startCluster == goalCluster && localDistance(startCluster, goalTile) >= 0;
+        if (!direct && !connected(startClusterIndex, goalClusterIndex, goalDistances)) {
+            return NO_PATH;
+        }
+
+        stamp++;
+        heapSize = 0;
+        stamps[startKey] = stamp;
+        costs[startKey] = 0;
+        if (direct) {
+            relax(startKey, goalKey, localDistance(startCluster, goalTile), goalTile, goalTile);
+        }
+        for (int i = 0; i < startCluster.nodes.length; i++) {
+            int distance = localDistance(startCluster, startCluster.nodes[i]);
+            if (distance >= 0) {
+                relax(startKey, startClusterIndex * maxNodes + i, distance, startCluster.nodes[i], goalTile);
+            }
+        }
+        while (heapSize > 0) {
+            int node = (int) pop();
+            if (closed[node] == stamp) {
+                continue; // Reached again on a longer path
+            }
+            closed[node] = stamp;
+            if (node == goalKey) {
+                return refine(startTile, buildAbstractPath(startTile, goalTile));
+            }
+            int cost = costs[node];
+            int clusterIndex = node / maxNodes;
+            int index = node % maxNodes;
+            Cluster cluster = clusters[clusterIndex];
+            int tile = cluster.nodes[index];
+            int count = cluster.nodes.length;
+            for (int j = 0; j < count; j++) {
+                int distance = cluster.distances[index * count + j];
+                if (j != index && distance >= 0) {
+                    relax(node, clusterIndex * maxNodes + j, cost + distance, cluster.nodes[j], goalTile);
+                }
+            }
+            // One step over the border to the paired node of the neighbouring cluster
+            int tileX = tile % width, tileY = tile / width;
+            for (int direction = 0; direction < 4; direction++) {
+                int nextX = tileX + FlowField.offsetX(direction);
+                int nextY = tileY + FlowField.offsetY(direction);
+                if (!tileMap.isInside(nextX, nextY)) {
+                    continue;
+                }
+                int next = nextY * width + nextX;
+                int nextCluster = clusterOf(next);
+                if (nextCluster == clusterIndex) {
+                    continue;
+                }
+                int nextIndex = clusters[nextCluster].indexOf(next);
+                if (nextIndex >= 0) {
+                    relax(node, nextCluster * maxNodes + nextIndex, cost + 1, next, goalTile);
+                }
+            }
+            if (clusterIndex == goalClusterIndex && goalDistances[index] >= 0) {
+                relax(node, goalKey, cost + goalDistances[index], goalTile, goalTile);
+            }
+        }
+        return NO_PATH;
+    }
+
+    // Whether an entrance the start reaches and one that reaches the goal are in the same component
+    private boolean connected(int startClusterIndex, int goalClusterIndex, int[] goalDistances) {
+        Cluster startCluster = clusters[startClusterIndex];
+        Cluster goalCluster = clusters[goalClusterIndex];
+        int startBase = startClusterIndex * maxNodes;
+        int goalBase = goalClusterIndex * maxNodes;
+        for (int i = 0; i < startCluster.nodes.length; i++) {
+            if (localDistance(startCluster, startCluster.nodes[i]) < 0) {
+                continue;
+            }
+            for (int j = 0; j < goalCluster.nodes.length; j++) {
+                if (goalDistances[j] >= 0 && components[startBase + i] == components[goalBase + j]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void relax(int from, int to, int cost, int toTile, int goalTile) {
+        if (stamps[to] == stamp && (closed[to] == stamp || costs[to] <= cost)) {
+            return;
+        }
+        stamps[to] = stamp;
+        costs[to] = cost;
+        parents[to] = from;
+        // Manhattan distance never overestimates on a four-connected grid
+        int heuristic = Math.abs(toTile % width - goalTile % width) + Math.abs(toTile / width - goalTile / width);
+        push((long) (cost + heuristic) << 32 | to);
+    }
+
+    private void push(long entry) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0 && heap[(i - 1) / 2] > entry) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    // The tiles of the abstract path, goal first
+    private List<Integer> buildAbstractPath(int startTile, int goalTile) {
+        List<Integer> tiles = new ArrayList<>();
+        tiles.add(goalTile);
+        int node = parents[goalKey];
+        while (node != startKey) {
+            tiles.add(clusters[node / maxNodes].nodes[node % maxNodes]);
+            node = parents[node];
+        }
+        tiles.add(startTile);
+        return tiles;
+    }
+
+    // Expands the abstract path, given goal first, into single tiles
+    private int[] refine(int start, List<Integer> abstractPath) {
+        int[] path = new int[64];
+        int length = 0;
+        path[length++] = start;
+        for (int i = abstractPath.size() - 2; i >= 0; i--) {
+            int from = path[length - 1];
+            int to = abstractPath.get(i);
+            if (from == to) {
+                continue;
+            }
+            // Consecutive nodes are either neighbours or in the same cluster
+            if (Math.abs(from % width - to % width) + Math.abs(from / width - to / width) == 1) {
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, path.length * 2);
+                }
+                path[length++] = to;
+                continue;
+            }
+            Cluster cluster = clusters[clusterOf(from)];
+            searchCluster(cluster, from, to);
+            int steps = localDistance(cluster, to);
+            if (length + steps > path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, length + steps));
+            }
+            int cell = toLocal(cluster, to);
+            for (int step = steps; step > 0; step--) {
+                path[length + step - 1] = toTile(cluster, cell);
+                cell = localParents[cell];
+            }
+            length += steps;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Must be called after a tile of the map was changed. Rebuilds the cluster of the tile and its
+     * neighbours and drops the cached paths that go through them.
+     */
+    public void tileChanged(int x, int y) {
+        int cx = x / clusterSize, cy = y / clusterSize;
+        walkableCluster = null;
+        boolean[] affected = new boolean[clusters.length];
+        for (int direction = -1; direction < 4; direction++) {
+            int nx = cx + (direction < 0 ? 0 : FlowField.offsetX(direction));
+            int ny = cy + (direction < 0 ? 0 : FlowField.offsetY(direction));
+            if (nx >= 0 && ny >= 0 && nx < clustersX && ny < clustersY) {
+                affected[ny * clustersX + nx] = true;
+                buildCluster(clusters[ny * clustersX + nx]);
+            }
+        }
+        findComponents();
+        Iterator<Map.Entry<Long, int[]>> iterator = cache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, int[]> entry = iterator.next();
+            int[] path = entry.getValue();
+            // Unreachable results may have become reachable anywhere
+            boolean drop = path == NO_PATH;
+            for (int i = 0; i < path.length && !drop; i++) {
+                drop = affected[clusterOf(path[i])];
+            }
+            if (drop) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Latency of recent {@link #findPath} calls, cache hits included.
+     *
+     * @param percentile between 0 and 100, e.g. 99
+     * @return the latency in nanoseconds, 0 before the first query
+     */
+    public long getLatencyPercentile(double percentile) {
+        int count = (int) Math.min(queries, LATENCY_SAMPLES);
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public long getQueryCount() {
+        return queries;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Forgets the recorded latencies, e.g. to measure a new batch of queries on its own.
+     */
+    public void resetLatencies() {
+        queries = 0;
+        cacheHits = 0;
+    }
+
+    /**
+     * Number of entrance nodes in the abstract graph.
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (Cluster cluster : clusters) {
+            count += cluster.nodes.length;
+        }
+        return count;
+    }
+}
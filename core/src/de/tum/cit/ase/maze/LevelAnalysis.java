@@ -0,0 +1,319 @@
+package de.tum.cit.ase.maze;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that a level can be won and keeps what was found out on the way for the AI and hints.
+ * The map needs exactly one entry with a free tile to its right where the player starts, a key the player
+ * can reach, and an exit the player can touch. Flood fills from the start, the keys and the exits, and a
+ * count of the connected areas, run as parallel tasks on the common {@link ForkJoinPool}.
+ * Runs without GL, so a broken map is rejected on the loader thread before the screen is built.
+ */
+public class LevelAnalysis {
+    private final List<String> problems = new ArrayList<>();
+    private int entries, exits, keys;
+    private int startTile = -1;
+    private DistanceField fromStart, fromKeys, fromExits;
+    private int startToKey = -1, keyToExit = -1, shortestRoute = -1;
+    private int walkableTiles, components, largestComponent;
+
+    private LevelAnalysis() {
+    }
+
+    public static LevelAnalysis analyze(TileMap tileMap) {
+        LevelAnalysis analysis = new LevelAnalysis();
+        analysis.run(tileMap);
+        return analysis;
+    }
+
+    /**
+     * Writes the analysis for {@link #read}, so it does not have to be run again, see {@link MapCache}.
+     */
+    void write(DataOutputStream out) throws IOException {
+        for (int value : new int[] {entries, exits, keys, startTile, startToKey, keyToExit, shortestRoute,
+                walkableTiles, components, largestComponent}) {
+            out.writeInt(value);
+        }
+        fromStart.write(out);
+        fromKeys.write(out);
+        fromExits.write(out);
+        out.writeInt(problems.size());
+        for (String problem : problems) {
+            byte[] bytes = problem.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads an analysis written by {@link #write}, leaving the buffer after it.
+     */
+    static LevelAnalysis read(ByteBuffer in) {
+        LevelAnalysis analysis = new LevelAnalysis();
+        analysis.entries = in.getInt();
+        analysis.exits = in.getInt();
+        analysis.keys = in.getInt();
+        analysis.startTile = in.getInt();
+        analysis.startToKey = in.getInt();
+        analysis.keyToExit = in.getInt();
+        analysis.shortestRoute = in.getInt();
+        analysis.walkableTiles = in.getInt();
+        analysis.components = in.getInt();
+        analysis.largestComponent = in.getInt();
+        analysis.fromStart = DistanceField.read(in);
+        analysis.fromKeys = DistanceField.read(in);
+        analysis.fromExits = DistanceField.read(in);
+        for (int count = in.getInt(); count > 0; count--) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            analysis.problems.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return analysis;
+    }
+
+    private void run(TileMap tileMap) {
+        int width = tileMap.getWidth();
+        byte[] tiles = tileMap.getTiles();
+        int[] keyTiles = new int[16];
+        int[] exitTiles = new int[4];
+        for (int i = 0; i < tiles.length; i++) {
+            switch (tiles[i]) {
+                case TileMap.ENTRY:
+                    if (entries++ == 0) {
+                        startTile = i % width + 1 < width ? i + 1 : -1;
+                    }
+                    break;
+                case TileMap.EXIT:
+                    if (exits == exitTiles.length) {
+                        exitTiles = Arrays.copyOf(exitTiles, exits * 2);
+                    }
+                    exitTiles[exits++] = i;
+                    break;
+                case TileMap.KEY:
+                    if (keys == keyTiles.length) {
+                        keyTiles = Arrays.copyOf(keyTiles, keys * 2);
+                    }
+                    keyTiles[keys++] = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+        int[] keySources = Arrays.copyOf(keyTiles, keys);
+        int[] exitSources = Arrays.copyOf(exitTiles, exits);
+
+        if (entries != 1) {
+            problems.add("The map needs exactly one entry (1), it has " + entries);
+        }
+        if (keys == 0) {
+            problems.add("The map has no key (5), so the exit never opens");
+        }
+        if (exits == 0) {
+            problems.add("The map has no exit (2)");
+        }
+        boolean canStart = startTile >= 0 && TileMap.isWalkable(tiles[startTile] & 0xFF);
+        if (entries > 0 && !canStart) {
+            problems.add("The tile right of the entry, where the player starts, is blocked");
+        }
+        int[] start = canStart ? new int[] {startTile} : new int[0];
+        int[] targets = concat(keySources, exitSources);
+
+        List<Callable<Object>> fills = List.of(
+                () -> fromStart = DistanceField.compute(tileMap, start, targets),
+                () -> fromKeys = DistanceField.compute(tileMap, keySources, exitSources),
+                () -> fromExits = DistanceField.compute(tileMap, exitSources, keySources),
+                () -> {
+                    countComponents(tileMap);
+                    return null;
+                });
+        try {
+            for (Future<Object> fill : ForkJoinPool.commonPool().invokeAll(fills)) {
+                fill.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Level analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Level analysis failed", e.getCause());
+        }
+
+        // The best route picks the key with the shortest way from the start plus on to an exit
+        for (int key : keySources) {
+            int toKey = fromStart.getTargetDistance(key);
+            int toExit = fromExits.getTargetDistance(key);
+            if (toKey >= 0 && (startToKey < 0 || toKey < startToKey)) {
+                startToKey = toKey;
+            }
+            if (toKey >= 0 && toExit >= 0 && (shortestRoute < 0 || toKey + toExit < shortestRoute)) {
+                shortestRoute = toKey + toExit;
+            }
+        }
+        for (int exit : exitSources) {
+            int distance = fromKeys.getTargetDistance(exit);
+            if (distance >= 0 && (keyToExit < 0 || distance < keyToExit)) {
+                keyToExit = distance;
+            }
+        }
+        if (canStart && keys > 0 && startToKey < 0) {
+            problems.add("No key can be reached from the entry");
+        }
+        if (canStart && startToKey >= 0 && exits > 0 && shortestRoute < 0) {
+            problems.add("No exit can be reached from a reachable key");
+        }
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    // Counts the areas of walkable tiles that are not connected to each other
+    private void countComponents(TileMap tileMap) {
+        int width = tileMap.getWidth();
+        byte[] tiles = tileMap.getTiles();
+        long[] visited = new long[(tiles.length + 63) / 64];
+        int[] stack = new int[64];
+        for (int first = 0; first < tiles.length; first++) {
+            if ((visited[first >>> 6] & 1L << first) != 0 || !TileMap.isWalkable(tiles[first] & 0xFF)) {
+                continue;
+            }
+            components++;
+            int size = 0;
+            int top = 0;
+            stack[top++] = first;
+            visited[first >>> 6] |= 1L << first;
+            while (top > 0) {
+                int tile = stack[--top];
+                size++;
+                for (int direction = 0; direction < 4; direction++) {
+                    int x = tile % width + FlowField.offsetX(direction);
+                    int y = tile / width + FlowField.offsetY(direction);
+                    int neighbour = y * width + x;
+                    if (!tileMap.isInside(x, y) || (visited[neighbour >>> 6] & 1L << neighbour) != 0
+                            || !TileMap.isWalkable(tiles[neighbour] & 0xFF)) {
+                        continue;
+                    }
+                    visited[neighbour >>> 6] |= 1L << neighbour;
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = neighbour;
+                }
+            }
+            walkableTiles += size;
+            largestComponent = Math.max(largestComponent, size);
+        }
+    }
+
+    public boolean isValid() {
+        return problems.isEmpty();
+    }
+
+    public List<String> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Throws if the level cannot be won.
+     */
+    public void validate() throws LevelValidationException {
+        if (!isValid()) {
+            throw new LevelValidationException(problems);
+        }
+    }
+
+    /**
+     * Distances from the tile the player starts on; empty if the start is blocked.
+     */
+    public DistanceField getFromStart() {
+        return fromStart;
+    }
+
+    /**
+     * Distances from the nearest key, e.g. for a hint pointing to it.
+     */
+    public DistanceField getFromKeys() {
+        return fromKeys;
+    }
+
+    /**
+     * Distances from the nearest exit.
+     */
+    public DistanceField getFromExits() {
+        return fromExits;
+    }
+
+    /**
+     * Steps from the start to the nearest key, -1 if none can be reached.
+     */
+    public int getStartToKey() {
+        return startToKey;
+    }
+
+    /**
+     * Steps from the key nearest to an exit to that exit, -1 if none can be reached.
+     */
+    public int getKeyToExit() {
+        return keyToExit;
+    }
+
+    /**
+     * Steps of the shortest winning route, from the start over a key to an exit, -1 if there is none.
+     */
+    public int getShortestRoute() {
+        return shortestRoute;
+    }
+
+    public int getEntryCount() {
+        return entries;
+    }
+
+    public int getExitCount() {
+        return exits;
+    }
+
+    public int getKeyCount() {
+        return keys;
+    }
+
+    public int getWalkableTiles() {
+        return walkableTiles;
+    }
+
+    /**
+     * Number of separate walkable areas; only the one with the start is playable.
+     */
+    public int getComponentCount() {
+        return components;
+    }
+
+    public int getLargestComponent() {
+        return largestComponent;
+    }
+
+    /**
+     * A short summary, with one line per problem if there are any.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(entries).append(" entries, ").append(keys).append(" keys, ").append(exits).append(" exits, ")
+                .append(walkableTiles).append(" walkable tiles in ").append(components).append(" areas, ")
+                .append(fromStart.getReachedCount()).append(" reachable, shortest route ").append(shortestRoute);
+        for (String problem : problems) {
+            report.append('\n').append(problem);
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parsed and analysed levels, prepared on a background thread before anyone asks for them.
+ * The game prefetches the bundled levels at startup, so picking one in the menu is a cache hit and the menu
+ * can show their stats right away. Entries are keyed by file path and modification time, so an edited
+ * file is parsed again, and only the {@link #MAX_ENTRIES} most recently used levels are kept.
+ * Behind it, a {@link MapCache} keeps the parsed levels on disk, so even the first load after a restart skips parsing.
+ * Thread safe; a level requested twice is parsed once, the second caller waits for the first.
+ */
+public class LevelCatalog {
+    public static final int MAX_ENTRIES = 8;
+
+    /**
+     * A parsed level with its analysis and a few numbers for the menu. The tile map is shared, so it must not be changed.
+     */
+    public static class Entry {
+        private final TileMap tileMap;
+        private final LevelAnalysis analysis;
+        private int traps, enemies;
+
+        Entry(TileMap tileMap, LevelAnalysis analysis) {
+            this.tileMap = tileMap;
+            this.analysis = analysis;
+            for (byte tile : tileMap.getTiles()) {
+                if (tile == TileMap.TRAP) {
+                    traps++;
+                } else if (tile == TileMap.ENEMY) {
+                    enemies++;
+                }
+            }
+        }
+
+        /**
+         * Analyses a map that does not come from a file, e.g. a generated one.
+         */
+        public static Entry of(TileMap tileMap) {
+            return new Entry(tileMap, LevelAnalysis.analyze(tileMap));
+        }
+
+        public TileMap getTileMap() {
+            return tileMap;
+        }
+
+        public LevelAnalysis getAnalysis() {
+            return analysis;
+        }
+
+        public int getTraps() {
+            return traps;
+        }
+
+        public int getEnemies() {
+            return enemies;
+        }
+
+        /**
+         * A rough score for sorting and display: the length of the winning route,
+         * plus a penalty for every trap and enemy on the map.
+         */
+        public int getDifficulty() {
+            return Math.max(0, analysis.getShortestRoute()) + 5 * traps + 20 * enemies;
+        }
+
+        /**
+         * A short line for the menu, e.g. "31x17, 40 steps".
+         */
+        public String getSummary() {
+            if (!analysis.isValid()) {
+                return "invalid";
+            }
+            return tileMap.getWidth() + "x" + tileMap.getHeight() + ", " + analysis.getShortestRoute() + " steps";
+        }
+    }
+
+    private final MapCache mapCache;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-catalog");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final LinkedHashMap<String, Future<Entry>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Future<Entry>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @param mapCache the on-disk cache to load through, or null to always parse
+     */
+    public LevelCatalog(MapCache mapCache) {
+        this.mapCache = mapCache;
+    }
+
+    private static String key(FileHandle file) {
+        return file.path() + "@" + file.lastModified();
+    }
+
+    /**
+     * Starts parsing files in the background, unless they are cached already.
+     */
+    public void prefetch(FileHandle... files) {
+        for (FileHandle file : files) {
+            request(file);
+        }
+    }
+
+    /**
+     * Starts parsing a file in the background unless it is cached already, and returns the pending level.
+     * Looks at the file's modification time, so keep the future to poll it rather than asking again every frame.
+     */
+    public synchronized Future<Entry> request(FileHandle file) {
+        return entries.computeIfAbsent(key(file), key -> executor.submit(() -> parse(file)));
+    }
+
+    private Entry parse(FileHandle file) throws IOException {
+        return mapCache != null ? mapCache.load(file) : Entry.of(Maps.loadMazeData(file));
+    }
+
+    /**
+     * The level, parsed now if it is not cached. Blocks until it is ready, so call it off the render thread.
+     *
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public Entry load(FileHandle file) throws IOException {
+        Future<Entry> entry = request(file);
+        try {
+            return entry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file.path(), e);
+        } catch (ExecutionException e) {
+            forget(file);
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * The level of a {@link #request} if it is parsed already, otherwise null, also if parsing failed.
+     * Never blocks, so the menu can poll it.
+     */
+    public static Entry getIfReady(Future<Entry> entry) {
+        if (!entry.isDone()) {
+            return null;
+        }
+        try {
+            return entry.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    private synchronized void forget(FileHandle file) {
+        entries.remove(key(file));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Loads one level without blocking the render thread.
+ * The map is parsed and analysed, usually by the {@link LevelCatalog} ahead of time, then validated
+ * and the {@link LevelScene} is built on a worker thread;
+ * the GL resources are then created on the render thread in slices of at most
+ * {@link #FRAME_BUDGET_MILLIS} per frame by calling {@link #update()}.
+ */
+public class LevelLoader {
+    public enum State { PARSING, BUILDING, DONE, FAILED, CANCELLED }
+
+    private static final long FRAME_BUDGET_MILLIS = 8;
+    // Share of the progress bar given to the worker thread part
+    private static final float PARSE_SHARE = 0.5f;
+
+    private final MazeRunnerGame game;
+    private final Future<LevelScene> sceneFuture;
+    private volatile boolean cancelled;
+    private State state = State.PARSING;
+    private GameScreen gameScreen;
+    private String error;
+
+    /**
+     * Starts loading right away.
+     *
+     * @param source produces the analysed level, called on the worker thread
+     */
+    public LevelLoader(MazeRunnerGame game, ExecutorService executor, Callable<LevelCatalog.Entry> source) {
+        this.game = game;
+        SpriteAtlas sprites = game.getSpriteAtlas();
+        sceneFuture = executor.submit(() -> {
+            LevelCatalog.Entry level = source.call();
+            if (cancelled) {
+                return null;
+            }
+            LevelAnalysis analysis = level.getAnalysis();
+            // Shown when the application's log level is Application.LOG_DEBUG
+            Gdx.app.debug("LevelLoader", "Level analysis: " + analysis.getReport());
+            analysis.validate();
+            return new LevelScene(level.getTileMap(), analysis, sprites);
+        });
+    }
+
+    /**
+     * Advances the load. Must be called on the render thread, once per frame.
+     *
+     * @return the current state
+     */
+    public State update() {
+        if (state == State.PARSING && sceneFuture.isDone()) {
+            try {
+                gameScreen = new GameScreen(game, sceneFuture.get());
+                state = State.BUILDING;
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof LevelValidationException) {
+                    error = String.join("\n", ((LevelValidationException) cause).getProblems());
+                } else {
+                    error = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                }
+                state = State.FAILED;
+            }
+        }
+        if (state == State.BUILDING) {
+            long start = TimeUtils.millis();
+            while (!gameScreen.loadStep()) {
+                if (TimeUtils.timeSinceMillis(start) >= FRAME_BUDGET_MILLIS) {
+                    return state;
+                }
+            }
+            state = State.DONE;
+        }
+        return state;
+    }
+
+    /**
+     * Stops the load and frees whatever was created so far.
+     */
+    public void cancel() {
+        if (state == State.DONE || state == State.FAILED || state == State.CANCELLED) {
+            return;
+        }
+        cancelled = true;
+        sceneFuture.cancel(true);
+        if (gameScreen != null) {
+            gameScreen.dispose();
+            gameScreen = null;
+        }
+        state = State.CANCELLED;
+    }
+
+    public float getProgress() {
+        switch (state) {
+            case PARSING:
+                return 0;
+            case BUILDING:
+                return PARSE_SHARE + (1 - PARSE_SHARE) * gameScreen.getLoadProgress();
+            default:
+                return 1;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * The loaded screen, available once the state is {@link State#DONE}.
+     */
+    public GameScreen getGameScreen() {
+        return gameScreen;
+    }
+
+    /**
+     * Why the load failed, one problem per line for a level that did not pass validation.
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,100 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * The part of a level that needs no GL context: the tile map, the keys and traps sorted into chunks,
+ * the {@link MazeEngine} that runs the rules, the {@link HierarchicalPathfinder} for long path queries,
+ * the {@link LevelAnalysis} with distance fields from the start, keys and exits, and the {@link FieldOfView}
+ * of dark mazes.
+ * It is built on the loader thread and then handed to a {@link GameScreen}.
+ */
+public class LevelScene {
+    private final TileMap tileMap;
+    private final ChunkGrid gameObjects;
+    private final MazeEngine engine;
+    // Built on first use, most levels never need it
+    private HierarchicalPathfinder pathfinder;
+    private final LevelAnalysis analysis;
+    private final FieldOfView fieldOfView;
+
+    /**
+     * @param analysis the analysis of the tile map, usually already validated
+     */
+    public LevelScene(TileMap tileMap, LevelAnalysis analysis, SpriteAtlas sprites) {
+        this(tileMap, analysis, sprites.findRegion(SpriteAtlas.KEY), sprites.findRegion(SpriteAtlas.TRAP));
+    }
+
+    /**
+     * Builds the scene with the given sprites. They are only stored, so empty regions work without a GL context.
+     */
+    public LevelScene(TileMap tileMap, TextureRegion keyRegion, TextureRegion trapRegion) {
+        this(tileMap, LevelAnalysis.analyze(tileMap), keyRegion, trapRegion);
+    }
+
+    private LevelScene(TileMap tileMap, LevelAnalysis analysis, TextureRegion keyRegion, TextureRegion trapRegion) {
+        this.tileMap = tileMap;
+        this.analysis = analysis;
+        this.engine = new MazeEngine(tileMap);
+        gameObjects = buildGameObjects(engine, keyRegion, trapRegion);
+        fieldOfView = new FieldOfView(tileMap);
+    }
+
+    /**
+     * The keys and traps still in the engine sorted into chunks, e.g. again after a replay seeked back and keys
+     * reappeared.
+     */
+    public static ChunkGrid buildGameObjects(MazeEngine engine, TextureRegion keyRegion, TextureRegion trapRegion) {
+        TileMap tileMap = engine.getTileMap();
+        EntityStore entities = engine.getEntities();
+        ChunkGrid gameObjects = new ChunkGrid(tileMap.getWidth(), tileMap.getHeight());
+        for (int i = entities.getEnemyCount(); i < entities.size(); i++) {
+            int x = entities.getTileX(i), y = entities.getTileY(i);
+            switch (entities.getType(i)) {
+                case TileMap.TRAP:
+                    gameObjects.add(new Trap(trapRegion, x, y));
+                    break;
+                case TileMap.KEY:
+                    gameObjects.add(new Key(keyRegion, x, y));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return gameObjects;
+    }
+
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    public ChunkGrid getGameObjects() {
+        return gameObjects;
+    }
+
+    public MazeEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Pathfinder over the engine's map, e.g. for hints and distance checks. Its graph is built by the first call,
+     * so that call costs as much as building it. Use it from one thread only.
+     */
+    public HierarchicalPathfinder getPathfinder() {
+        if (pathfinder == null) {
+            pathfinder = new HierarchicalPathfinder(engine.getTileMap());
+        }
+        return pathfinder;
+    }
+
+    public LevelAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * What the player sees and has explored, nothing yet.
+     */
+    public FieldOfView getFieldOfView() {
+        return fieldOfView;
+    }
+}
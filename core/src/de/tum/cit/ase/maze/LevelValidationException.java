@@ -0,0 +1,24 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Thrown when a map is well formed but cannot be played, see {@link LevelAnalysis}.
+ * The message lists every problem found.
+ */
+public class LevelValidationException extends IOException {
+    private static final long serialVersionUID = 1L;
+    // List.copyOf gives a serializable list
+    @SuppressWarnings("serial")
+    private final List<String> problems;
+
+    public LevelValidationException(List<String> problems) {
+        super("Invalid level: " + String.join("; ", problems));
+        this.problems = List.copyOf(problems);
+    }
+
+    public List<String> getProblems() {
+        return problems;
+    }
+}
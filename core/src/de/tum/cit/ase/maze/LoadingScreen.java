@@ -0,0 +1,122 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+
+/**
+ * The LoadingScreen class shows the progress of a {@link LevelLoader} and drives it every frame.
+ * It switches to the game once the level is ready, or back to the menu if loading is cancelled.
+ * If loading fails, the reason stays on screen until the player goes back.
+ */
+public class LoadingScreen implements Screen {
+
+    private final MazeRunnerGame game;
+    private final LevelLoader loader;
+    private final Stage stage;
+    private final ProgressBar progressBar;
+    private final Label statusLabel;
+    private final Label errorLabel;
+    private final TextButton cancel;
+    private boolean failed;
+
+    public LoadingScreen(MazeRunnerGame game, LevelLoader loader) {
+        this.game = game;
+        this.loader = loader;
+
+        var camera = new OrthographicCamera();
+        camera.zoom = 1.5f;
+        stage = new Stage(new ScreenViewport(camera), game.getSpriteBatch());
+
+        Table table = new Table();
+        table.setFillParent(true);
+        stage.addActor(table);
+
+        statusLabel = new Label("Loading...", game.getSkin(), "title");
+        progressBar = new ProgressBar(0, 1, 0.01f, false, game.getSkin());
+        errorLabel = new Label("", game.getSkin());
+        errorLabel.setWrap(true);
+        cancel = new TextButton("Cancel", game.getSkin());
+        cancel.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                game.cancelLoading();
+            }
+        });
+
+        table.add(statusLabel).padBottom(80).row();
+        table.add(progressBar).width(500).pad(10).row();
+        table.add(errorLabel).width(500).pad(10).row();
+        table.add(cancel).width(500).pad(10).row();
+    }
+
+    @Override
+    public void render(float delta) {
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            game.cancelLoading();
+            return;
+        }
+        if (!failed) {
+            switch (loader.update()) {
+                case DONE:
+                    game.finishLoading(loader.getGameScreen());
+                    return;
+                case FAILED:
+                    System.out.println("Failed to load level: " + loader.getError());
+                    showError(loader.getError());
+                    break;
+                default:
+                    progressBar.setValue(loader.getProgress());
+                    break;
+            }
+        }
+        stage.act(Math.min(delta, 1 / 30f));
+        stage.draw();
+    }
+
+    private void showError(String error) {
+        failed = true;
+        statusLabel.setText("Could not load level");
+        errorLabel.setText(error);
+        progressBar.setVisible(false);
+        cancel.setText("Back");
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        stage.getViewport().update(width, height, true);
+    }
+
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(stage);
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+    }
+
+    @Override
+    public void dispose() {
+        stage.dispose();
+    }
+}
@@ -0,0 +1,192 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps parsed maps on disk between runs, together with their {@link LevelAnalysis}, so a map that was loaded
+ * before costs one memory-mapped read instead of a parse and three flood fills.
+ * Entries are named after the SHA-256 of the bytes of the file actually read, see {@link Maps#sourceFile},
+ * so a changed file simply misses, whatever its name. When the directory grows over its size cap, the least recently used entries are deleted.
+ * An entry is the binary map (see {@link BinaryMapFormat}) followed by the serialized analysis.
+ * Safe to use from several threads; a damaged entry is deleted and the map parsed again.
+ */
+public class MapCache {
+    public static final String EXTENSION = "mapcache";
+    public static final long DEFAULT_SIZE_CAP = 256L * 1024 * 1024;
+    private static final int MAGIC = 0x4D5A4341;
+    // Bump when the layout of the map or the analysis changes, older entries are then ignored
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 9;
+
+    private final Path directory;
+    private final long sizeCap;
+    private int hits, misses;
+
+    public MapCache(Path directory, long sizeCap) {
+        this.directory = directory;
+        this.sizeCap = sizeCap;
+    }
+
+    /**
+     * The cache in the game's {@link MazeRunnerGame#USER_DIRECTORY}, shared by every copy of the game.
+     */
+    public static MapCache inUserHome() {
+        return new MapCache(MazeRunnerGame.USER_DIRECTORY.resolve("map-cache"), DEFAULT_SIZE_CAP);
+    }
+
+    /**
+     * Loads a map and its analysis, from the cache if the file was seen before, otherwise by parsing it
+     * and storing the result.
+     *
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public LevelCatalog.Entry load(FileHandle file) throws IOException {
+        FileHandle source = Maps.sourceFile(file);
+        Path entry = directory.resolve(hash(source) + "." + EXTENSION);
+        if (Files.isRegularFile(entry)) {
+            try {
+                LevelCatalog.Entry cached = read(entry);
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+                synchronized (this) {
+                    hits++;
+                }
+                return cached;
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Discarding damaged map cache entry " + entry.getFileName() + ": " + e);
+                Files.deleteIfExists(entry);
+            }
+        }
+        synchronized (this) {
+            misses++;
+        }
+        TileMap tileMap;
+        try {
+            tileMap = Maps.parse(source);
+        } catch (IOException e) {
+            if (source == file) {
+                throw e;
+            }
+            // A damaged binary file is skipped like in Maps.loadMazeData, the entry then belongs to the text file
+            System.out.println("Ignoring binary map " + source.path() + ": " + e.getMessage());
+            source = file;
+            entry = directory.resolve(hash(source) + "." + EXTENSION);
+            tileMap = Maps.parse(source);
+        }
+        LevelCatalog.Entry parsed = LevelCatalog.Entry.of(tileMap);
+        try {
+            write(parsed, entry);
+            evict();
+        } catch (IOException e) {
+            // The cache only saves time, a read-only or full disk must not stop the game
+            System.out.println("Could not cache " + source.path() + ": " + e.getMessage());
+        }
+        return parsed;
+    }
+
+    // SHA-256 of the file contents, memory-mapped if it is a file on disk
+    private static String hash(FileHandle file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        if (file.type() != FileType.Classpath && file.file().isFile()) {
+            try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        } else {
+            digest.update(file.readBytes());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static LevelCatalog.Entry read(Path entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException("Not a map cache entry of version " + VERSION);
+            }
+            int mapSize = buffer.getInt();
+            ByteBuffer map = buffer.slice();
+            map.limit(mapSize);
+            TileMap tileMap = BinaryMapFormat.read(map);
+            buffer.position(buffer.position() + mapSize);
+            return new LevelCatalog.Entry(tileMap, LevelAnalysis.read(buffer));
+        }
+    }
+
+    // Writes to a temporary file first, so other threads and runs never see half an entry
+    private void write(LevelCatalog.Entry level, Path entry) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            ByteBuffer map = BinaryMapFormat.write(level.getTileMap(), true);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(map.remaining());
+                out.write(map.array(), map.position(), map.remaining());
+                level.getAnalysis().write(out);
+            }
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Deletes the least recently used entries until the directory fits the size cap
+    private synchronized void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*." + EXTENSION)) {
+            for (Path file : files) {
+                entries.add(file);
+                lastUsed.put(file, Files.getLastModifiedTime(file));
+                total += Files.size(file);
+            }
+        }
+        if (total <= sizeCap) {
+            return;
+        }
+        entries.sort(Comparator.comparing(lastUsed::get));
+        for (Path file : entries) {
+            if (total <= sizeCap) {
+                break;
+            }
+            total -= Files.size(file);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+}
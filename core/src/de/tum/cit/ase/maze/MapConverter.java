@@ -0,0 +1,52 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line tool that converts {@code .properties} maps into the binary {@code .maze} format.
+ * Each argument is either a map file or a directory whose map files are all converted.
+ * The binary file is written next to its source, which is where {@link Maps} looks for it.
+ */
+public class MapConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: MapConverter <map.properties | directory>...");
+            return;
+        }
+        for (String arg : args) {
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> maps = Files.newDirectoryStream(path, "*.properties")) {
+                    for (Path map : maps) {
+                        convert(map);
+                    }
+                }
+            } else {
+                convert(path);
+            }
+        }
+    }
+
+    /**
+     * Converts one map and returns the path of the binary file.
+     */
+    public static Path convert(Path source) throws IOException {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot < 0 ? name : name.substring(0, dot);
+        Path target = source.resolveSibling(baseName + "." + BinaryMapFormat.EXTENSION);
+        try {
+            TileMap tileMap = MapParser.parse(ByteBuffer.wrap(Files.readAllBytes(source)));
+            BinaryMapFormat.write(tileMap, true, target);
+        } catch (MapFormatException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+        System.out.println("Converted " + source + " -> " + target);
+        return target;
+    }
+}
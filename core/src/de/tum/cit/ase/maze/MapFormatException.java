@@ -0,0 +1,21 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a map file does not follow the {@code x,y=value} format.
+ * Carries the 1-based line number of the offending line.
+ */
+public class MapFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final int line;
+
+    public MapFormatException(int line, String message) {
+        super("Line " + line + ": " + message);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+}
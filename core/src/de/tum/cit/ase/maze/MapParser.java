@@ -0,0 +1,172 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Single-pass parser for the {@code x,y=value} map format used by the level files.
+ * It reads the raw bytes once, parses the numbers in place and grows the grid while reading,
+ * so no Properties table or intermediate strings are created.
+ * Blank lines and lines starting with '#' or '!' are ignored, like in a properties file.
+ */
+public class MapParser {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ByteBuffer buffer;
+    private int line = 1;
+    // Growing row-major grid, index y * stride + x, with room for rows * stride tiles
+    private byte[] grid = newGrid(INITIAL_CAPACITY * INITIAL_CAPACITY);
+    private int stride = INITIAL_CAPACITY;
+    private int rows = INITIAL_CAPACITY;
+    private int maxX, maxY;
+
+    private MapParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Parses a whole map. The buffer is read from its position to its limit.
+     *
+     * @return the maze, missing cells set to {@link TileMap#EMPTY}
+     * @throws MapFormatException if a line is malformed
+     */
+    public static TileMap parse(ByteBuffer buffer) throws MapFormatException {
+        MapParser parser = new MapParser(buffer);
+        parser.readEntries();
+        return parser.toTileMap();
+    }
+
+    private void readEntries() throws MapFormatException {
+        while (buffer.hasRemaining()) {
+            skipBlanks();
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+            byte b = peek();
+            if (b == '\n' || b == '\r') {
+                readLineEnd();
+                continue;
+            }
+            if (b == '#' || b == '!') {
+                skipLine();
+                continue;
+            }
+            int x = readNumber("x coordinate");
+            skipBlanks();
+            expect(',', "',' between coordinates");
+            skipBlanks();
+            int y = readNumber("y coordinate");
+            skipBlanks();
+            if (!buffer.hasRemaining() || (peek() != '=' && peek() != ':')) {
+                throw new MapFormatException(line, "expected '=' after coordinates");
+            }
+            buffer.get();
+            skipBlanks();
+            int value = readNumber("value");
+            if (value > 255) {
+                throw new MapFormatException(line, "tile value " + value + " is out of range");
+            }
+            skipBlanks();
+            if (buffer.hasRemaining()) {
+                b = peek();
+                if (b != '\n' && b != '\r') {
+                    throw new MapFormatException(line, "unexpected character '" + (char) b + "' after value");
+                }
+                readLineEnd();
+            }
+            set(x, y, value);
+        }
+    }
+
+    private void set(int x, int y, int value) {
+        if (x >= stride) {
+            int newStride = Math.max(x + 1, stride * 2);
+            byte[] newGrid = newGrid(newStride * rows);
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(grid, row * stride, newGrid, row * newStride, stride);
+            }
+            grid = newGrid;
+            stride = newStride;
+        }
+        if (y >= rows) {
+            rows = Math.max(y + 1, rows * 2);
+            int used = grid.length;
+            grid = Arrays.copyOf(grid, stride * rows);
+            Arrays.fill(grid, used, grid.length, (byte) TileMap.EMPTY);
+        }
+        grid[y * stride + x] = (byte) value;
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    private TileMap toTileMap() {
+        int width = maxX + 1;
+        int height = maxY + 1;
+        if (width == stride && height == rows) {
+            return new TileMap(width, height, grid);
+        }
+        byte[] tiles = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * stride, tiles, y * width, width);
+        }
+        return new TileMap(width, height, tiles);
+    }
+
+    private static byte[] newGrid(int size) {
+        byte[] grid = new byte[size];
+        Arrays.fill(grid, (byte) TileMap.EMPTY);
+        return grid;
+    }
+
+    private int readNumber(String what) throws MapFormatException {
+        if (!buffer.hasRemaining() || !isDigit(peek())) {
+            throw new MapFormatException(line, "expected " + what);
+        }
+        int value = 0;
+        while (buffer.hasRemaining() && isDigit(peek())) {
+            if (value > (Integer.MAX_VALUE - 9) / 10) {
+                throw new MapFormatException(line, what + " is too large");
+            }
+            value = value * 10 + (buffer.get() - '0');
+        }
+        return value;
+    }
+
+    private void expect(char c, String what) throws MapFormatException {
+        if (!buffer.hasRemaining() || peek() != c) {
+            throw new MapFormatException(line, "expected " + what);
+        }
+        buffer.get();
+    }
+
+    private void skipBlanks() {
+        while (buffer.hasRemaining() && (peek() == ' ' || peek() == '\t' || peek() == '\f')) {
+            buffer.get();
+        }
+    }
+
+    private void skipLine() {
+        while (buffer.hasRemaining() && peek() != '\n' && peek() != '\r') {
+            buffer.get();
+        }
+        if (buffer.hasRemaining()) {
+            readLineEnd();
+        }
+    }
+
+    // Consumes "\n", "\r" or "\r\n"
+    private void readLineEnd() {
+        if (buffer.get() == '\r' && buffer.hasRemaining() && peek() == '\n') {
+            buffer.get();
+        }
+        line++;
+    }
+
+    private byte peek() {
+        return buffer.get(buffer.position());
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -7,7 +7,7 @@
 import games.spooky.gdx.nativefilechooser.NativeFileChooserConfiguration;
 
 import java.io.IOException;
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 public class Maps {
 
@@ -23,7 +23,7 @@ public Maps(NativeFileChooser fileChooser, MazeRunnerGame game) {
     public void configureMaps() {
         config = new NativeFileChooserConfiguration();
         config.directory = Gdx.files.internal("assets/maps");
-        config.nameFilter = (dir, name) -> name.endsWith("properties");
+        config.nameFilter = (dir, name) -> name.endsWith("properties") || name.endsWith(BinaryMapFormat.EXTENSION);
         config.title = "Choose map file";
     }
 
@@ -53,56 +53,70 @@ public void onError(Exception exception) {
 
     private void handleFileChosen(FileHandle file) {
         System.out.println("File chosen :)");
-        Properties data = new Properties();
-        try {
-            data.load(file.reader());
-            int[][] mazeData = loadMazeData(data);
-            game.startGameWithMaze(mazeData);
-        } catch (IOException e) {
-            System.out.println("Failed reading data: " + e);
-        }
+        // The chooser may call back on its own thread, loading has to start on the render thread
+        Gdx.app.postRunnable(() -> game.loadLevel(file));
+    }
+    public FileHandle getDefaultMapFile() {
+        return Gdx.files.internal("defaultmap/level-1.properties");
     }
-    public int[][] loadDefaultMazeData() {
-        FileHandle fileHandle = Gdx.files.internal("defaultmap/level-1.properties");
-        Properties defaultMazeProperties = new Properties();
+    public TileMap loadDefaultMazeData() {
         try {
-            defaultMazeProperties.load(fileHandle.reader());
-            return loadMazeData(defaultMazeProperties);
+            return loadMazeData(getDefaultMapFile());
         } catch (IOException e) {
             System.out.println("Failed to read default maze data: " + e);
             return null; // Or handle the error as appropriate
         }
     }
 
-    private int[][] loadMazeData(Properties data) {
-        int maxX = data.stringPropertyNames().stream()
-                .mapToInt(coord -> Integer.parseInt(coord.split(",")[0]))
-                .max()
-                .orElse(0);
-
-        int maxY = data.stringPropertyNames().stream()
-                .mapToInt(coord -> Integer.parseInt(coord.split(",")[1]))
-                .max()
-                .orElse(0);
+    /**
+     * Returns the file of a bundled level, looking in maps/ under the working directory
+     * and next to the assets directory.
+     */
+    public static FileHandle levelFile(int level) {
+        String name = "maps/level-" + level + ".properties";
+        FileHandle file = Gdx.files.internal(name);
+        return file.exists() ? file : Gdx.files.internal("../" + name);
+    }
 
-        // Initialize the maze with default values (e.g., 0)
-        int[][] mazeData = new int[maxX + 1][maxY + 1];
-        for (int i = 0; i <= maxX; i++) {
-            for (int j = 0; j <= maxY; j++) {
-                mazeData[i][j] = 7; // or another default value if needed
+    /**
+     * Reads a map file. If a binary {@code .maze} file that is at least as new sits next to it,
+     * that one is memory-mapped instead; otherwise the {@code x,y=value} text is parsed in a single pass.
+     *
+     * @throws IOException if the file is malformed
+     */
+    public static TileMap loadMazeData(FileHandle file) throws IOException {
+        FileHandle source = sourceFile(file);
+        if (source != file) {
+            try {
+                return BinaryMapFormat.read(source);
+            } catch (IOException e) {
+                System.out.println("Ignoring binary map " + source.path() + ": " + e.getMessage());
             }
         }
+        return parse(file);
+    }
 
-        // Update the maze data only for coordinates present in the Properties object
-        data.forEach((key, value) -> {
-            String[] coordinates = key.toString().split(",");
-            int x = Integer.parseInt(coordinates[0]);
-            int y = Integer.parseInt(coordinates[1]);
-            int intValue = Integer.parseInt(value.toString());
-            mazeData[x][y] = intValue;
-        });
+    /**
+     * The file {@link #loadMazeData} reads for a map file: the binary {@code .maze} file next to it if that one
+     * is at least as new, otherwise the file itself.
+     */
+    public static FileHandle sourceFile(FileHandle file) {
+        if (!file.extension().equals(BinaryMapFormat.EXTENSION)) {
+            FileHandle binary = file.sibling(file.nameWithoutExtension() + "." + BinaryMapFormat.EXTENSION);
+            if (binary.exists() && binary.lastModified() >= file.lastModified()) {
+                return binary;
+            }
+        }
+        return file;
+    }
 
-        return mazeData;
+    /**
+     * Reads a map file as it is, binary or text, without looking for a binary file next to it.
+     */
+    public static TileMap parse(FileHandle file) throws IOException {
+        if (file.extension().equals(BinaryMapFormat.EXTENSION)) {
+            return BinaryMapFormat.read(file);
+        }
+        return MapParser.parse(ByteBuffer.wrap(file.readBytes()));
     }
 }
-
@@ -0,0 +1,372 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The rules of one maze level, without any rendering: player movement, wall collisions,
+ * keys, traps, enemies chasing the player along a {@link FlowField}, and the exit.
+ * It only depends on the {@link TileMap}, so levels can be simulated without a window,
+ * e.g. for automated playthroughs and benchmarks.
+ * Positions are in tiles, (0, 0) is the bottom-left corner of the map, and an object's
+ * position is the bottom-left corner of its collision box.
+ */
+public class MazeEngine {
+    public enum State { PLAYING, WON, LOST }
+
+    /** Input bits for {@link #setInput(int)}. */
+    public static final int INPUT_UP = 1;
+    public static final int INPUT_DOWN = 2;
+    public static final int INPUT_LEFT = 4;
+    public static final int INPUT_RIGHT = 8;
+
+    public static final float PLAYER_SIZE = 0.75f;
+    /** Player speed in tiles per second. */
+    public static final float PLAYER_SPEED = 4f;
+    public static final float ENEMY_SIZE = 0.75f;
+    /** Enemy speed in tiles per second. */
+    public static final float ENEMY_SPEED = 2.5f;
+    /** Enemies further than this many steps from the player stand still. */
+    public static final int CHASE_DISTANCE = 64;
+    public static final int START_LIVES = 3;
+    /** How long the player cannot be hurt again after taking damage. */
+    public static final float INVULNERABLE_SECONDS = 1.5f;
+
+    private static final float DIAGONAL = (float) (1 / Math.sqrt(2));
+
+    /**
+     * Notified about game events, e.g. so a renderer can remove a collected key.
+     */
+    public interface Listener {
+        default void keyCollected(int tileX, int tileY) {
+        }
+
+        default void playerDamaged(int livesLeft) {
+        }
+
+        default void stateChanged(State state) {
+        }
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+    };
+
+    private final TileMap tileMap;
+    private final FlowField flowField;
+    private final TileCollider collider = new TileCollider(this::isSolid);
+    private final TriggerIndex triggers;
+    // The player box is smaller than a tile, so it touches at most four triggers
+    private final int[] triggerBuffer = new int[4];
+    private Listener listener = NO_LISTENER;
+    private State state = State.PLAYING;
+    private long ticks;
+
+    private boolean hasPlayer;
+    private float playerX, playerY;
+    private int input;
+    private int lives = START_LIVES;
+    private float invulnerableTime;
+    private int keys;
+    // Tiles of the collected keys, y * width + x, the only tiles that change during a level
+    private int[] collectedKeys = new int[4];
+    private boolean invincible;
+
+    // Keys and traps still on the map, and the enemies, each walking from tile centre to tile centre
+    private final EntityStore entities = new EntityStore();
+
+    /**
+     * Creates the engine for a level. The tile map is copied, because collected keys are removed from it.
+     * The player starts right of the entry; a map without entry has no player.
+     */
+    public MazeEngine(TileMap tileMap) {
+        this.tileMap = new TileMap(tileMap.getWidth(), tileMap.getHeight(), tileMap.getTiles().clone());
+        for (int y = 0; y < tileMap.getHeight(); y++) {
+            for (int x = 0; x < tileMap.getWidth(); x++) {
+                switch (tileMap.get(x, y)) {
+                    case TileMap.ENTRY:
+                        hasPlayer = true;
+                        playerX = x + 1 + (1 - PLAYER_SIZE) / 2;
+                        playerY = y + (1 - PLAYER_SIZE) / 2;
+                        break;
+                    case TileMap.ENEMY:
+                    case TileMap.KEY:
+                    case TileMap.TRAP:
+                        entities.add(tileMap.get(x, y), x, y);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        flowField = new FlowField(this.tileMap, CHASE_DISTANCE);
+        triggers = new TriggerIndex(this.tileMap);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    /**
+     * Sets the directions held down, a combination of the {@code INPUT_} bits. Stays in effect until changed.
+     */
+    public void setInput(int input) {
+        this.input = input;
+    }
+
+    /**
+     * Makes the player immune to traps and enemies, for automated playthroughs and benchmarks.
+     */
+    public void setInvincible(boolean invincible) {
+        this.invincible = invincible;
+    }
+
+    /**
+     * Advances the level by one simulation step. Does nothing once the level is won or lost.
+     *
+     * @param delta step length in seconds
+     */
+    public void tick(float delta) {
+        if (state != State.PLAYING) {
+            return;
+        }
+        ticks++;
+        if (invulnerableTime > 0) {
+            invulnerableTime -= delta;
+        }
+        if (hasPlayer) {
+            movePlayer(delta);
+            checkTiles();
+            moveEnemies(delta);
+            checkEnemies();
+        }
+    }
+
+    private void movePlayer(float delta) {
+        float dx = 0, dy = 0;
+        if ((input & INPUT_LEFT) != 0) dx -= 1;
+        if ((input & INPUT_RIGHT) != 0) dx += 1;
+        if ((input & INPUT_DOWN) != 0) dy -= 1;
+        if ((input & INPUT_UP) != 0) dy += 1;
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        float distance = PLAYER_SPEED * delta;
+        if (dx != 0 && dy != 0) {
+            distance *= DIAGONAL;
+        }
+        collider.move(playerX, playerY, PLAYER_SIZE, PLAYER_SIZE, dx * distance, dy * distance);
+        playerX = collider.getX();
+        playerY = collider.getY();
+    }
+
+    /**
+     * Whether the player cannot walk into the tile. The exit opens once a key was collected.
+     */
+    public boolean isSolid(int x, int y) {
+        if (!tileMap.isInside(x, y)) {
+            return true;
+        }
+        int tile = tileMap.get(x, y);
+        return tile == TileMap.EXIT ? keys == 0 : !TileMap.isWalkable(tile);
+    }
+
+    // Triggers of the tiles under the player
+    private void checkTiles() {
+        int count = triggers.query(playerX, playerY, PLAYER_SIZE, PLAYER_SIZE, triggerBuffer);
+        for (int i = 0; i < count; i++) {
+            int x = triggerBuffer[i] % tileMap.getWidth();
+            int y = triggerBuffer[i] / tileMap.getWidth();
+            switch (tileMap.get(x, y)) {
+                case TileMap.KEY:
+                    tileMap.set(x, y, TileMap.EMPTY);
+                    triggers.remove(x, y);
+                    entities.remove(entities.findAt(TileMap.KEY, x, y));
+                    if (keys == collectedKeys.length) {
+                        collectedKeys = Arrays.copyOf(collectedKeys, keys * 2);
+                    }
+                    collectedKeys[keys++] = y * tileMap.getWidth() + x;
+                    listener.keyCollected(x, y);
+                    break;
+                case TileMap.TRAP:
+                    damage();
+                    break;
+                case TileMap.EXIT:
+                    setState(State.WON);
+                    return;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void moveEnemies(float delta) {
+        if (state != State.PLAYING) {
+            return;
+        }
+        // The field is only recomputed when the player enters another tile
+        flowField.update((int) (playerX + PLAYER_SIZE / 2), (int) (playerY + PLAYER_SIZE / 2));
+        entities.moveEnemies(flowField, ENEMY_SPEED * delta);
+    }
+
+    private void checkEnemies() {
+        for (int i = 0; i < entities.getEnemyCount(); i++) {
+            float enemyX = entities.getX(i), enemyY = entities.getY(i);
+            if (enemyX < playerX + PLAYER_SIZE && playerX < enemyX + ENEMY_SIZE
+                    && enemyY < playerY + PLAYER_SIZE && playerY < enemyY + ENEMY_SIZE) {
+                damage();
+            }
+        }
+    }
+
+    private void damage() {
+        if (invincible || invulnerableTime > 0 || state != State.PLAYING) {
+            return;
+        }
+        lives--;
+        invulnerableTime = INVULNERABLE_SECONDS;
+        listener.playerDamaged(lives);
+        if (lives <= 0) {
+            setState(State.LOST);
+        }
+    }
+
+    private void setState(State state) {
+        this.state = state;
+        listener.stateChanged(state);
+    }
+
+    /**
+     * Upper bound of the bytes {@link #writeState} needs.
+     */
+    int getStateSize() {
+        return 48 + keys * 4 + entities.getEnemyCount() * 24;
+    }
+
+    /**
+     * Writes everything that changes while the level is played, for {@link GameSnapshot}.
+     * The map itself is not written, only the keys collected from it.
+     */
+    void writeState(ByteBuffer out) {
+        out.putLong(ticks);
+        out.put((byte) state.ordinal());
+        out.put((byte) (invincible ? 1 : 0));
+        out.putFloat(playerX);
+        out.putFloat(playerY);
+        out.putInt(input);
+        out.putInt(lives);
+        out.putFloat(invulnerableTime);
+        out.putInt(keys);
+        for (int i = 0; i < keys; i++) {
+            out.putInt(collectedKeys[i]);
+        }
+        entities.writeEnemies(out);
+    }
+
+    /**
+     * Restores what {@link #writeState} wrote into an engine just created for the same map.
+     * The listener is not told about the keys collected before.
+     */
+    void readState(ByteBuffer in) {
+        ticks = in.getLong();
+        state = State.values()[in.get()];
+        invincible = in.get() != 0;
+        playerX = in.getFloat();
+        playerY = in.getFloat();
+        input = in.getInt();
+        lives = in.getInt();
+        invulnerableTime = in.getFloat();
+        keys = in.getInt();
+        if (keys < 0 || keys > in.remaining() / 4) {
+            throw new IllegalArgumentException("Snapshot has " + keys + " keys");
+        }
+        collectedKeys = new int[Math.max(4, keys)];
+        for (int i = 0; i < keys; i++) {
+            int tile = in.getInt();
+            collectedKeys[i] = tile;
+            int x = tile % tileMap.getWidth(), y = tile / tileMap.getWidth();
+            if (tileMap.get(x, y) != TileMap.KEY) {
+                throw new IllegalArgumentException("Snapshot has a key collected at " + x + "," + y);
+            }
+            tileMap.set(x, y, TileMap.EMPTY);
+            triggers.remove(x, y);
+            entities.remove(entities.findAt(TileMap.KEY, x, y));
+        }
+        entities.readEnemies(in);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Number of steps simulated so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * The engine's own copy of the map, without the keys collected so far.
+     */
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    public boolean hasPlayer() {
+        return hasPlayer;
+    }
+
+    public float getPlayerX() {
+        return playerX;
+    }
+
+    public float getPlayerY() {
+        return playerY;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getKeys() {
+        return keys;
+    }
+
+    public boolean isInvulnerable() {
+        return invulnerableTime > 0;
+    }
+
+    public int getEnemyCount() {
+        return entities.getEnemyCount();
+    }
+
+    public float getEnemyX(int index) {
+        return entities.getX(index);
+    }
+
+    public float getEnemyY(int index) {
+        return entities.getY(index);
+    }
+
+    /**
+     * Where the enemy was before the last step, for interpolated drawing.
+     */
+    public float getEnemyPreviousX(int index) {
+        return entities.getPreviousX(index);
+    }
+
+    public float getEnemyPreviousY(int index) {
+        return entities.getPreviousY(index);
+    }
+
+    /**
+     * The keys still on the map, the traps and the enemies; enemies hold the first indices.
+     */
+    public EntityStore getEntities() {
+        return entities;
+    }
+
+    public FlowField getFlowField() {
+        return flowField;
+    }
+}
@@ -0,0 +1,258 @@
+package de.tum.cit.ase.maze;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Generates perfect mazes of any size by recursive division, for stress levels far bigger than the hand-made ones.
+ * Every chamber is cut in two by a wall with one gap, and both halves are divided further; halves bigger than
+ * {@link #PARALLEL_AREA} tiles are divided in parallel on the common {@link ForkJoinPool}. Each half gets a
+ * random split from its parent, so the same seed gives the same maze no matter how the work is scheduled.
+ * Walls lie on even coordinates and passages on odd ones, so the map size is rounded up to an odd number.
+ */
+public class MazeGenerator {
+    /** Chambers with fewer tiles than this are divided on the current thread. */
+    public static final int PARALLEL_AREA = 128 * 128;
+    public static final float DEFAULT_TRAP_DENSITY = 0.01f;
+    public static final float DEFAULT_ENEMY_DENSITY = 0.002f;
+    public static final int DEFAULT_KEYS = 3;
+    // Rows of tiles populated by one task
+    private static final int STRIP_ROWS = 64;
+
+    private float trapDensity = DEFAULT_TRAP_DENSITY;
+    private float enemyDensity = DEFAULT_ENEMY_DENSITY;
+    private int keys = DEFAULT_KEYS;
+
+    /**
+     * Writes a generated maze to a file, in the binary format if the name ends with {@code .maze}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: MazeGenerator <width> <height> <seed> [output.properties | output.maze]");
+            return;
+        }
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+        Path output = Path.of(args.length > 3 ? args[3] : "maze-" + width + "x" + height + "-" + seed + ".properties");
+
+        long start = System.nanoTime();
+        TileMap tileMap = new MazeGenerator().generate(width, height, seed);
+        long generated = System.nanoTime();
+        write(tileMap, output);
+        long written = System.nanoTime();
+        System.out.printf("Generated %dx%d in %d ms, wrote %s in %d ms%n", tileMap.getWidth(), tileMap.getHeight(),
+                (generated - start) / 1_000_000, output, (written - generated) / 1_000_000);
+    }
+
+    /**
+     * Share of the free tiles that become traps.
+     */
+    public void setTrapDensity(float trapDensity) {
+        this.trapDensity = trapDensity;
+    }
+
+    /**
+     * Share of the free tiles that get an enemy.
+     */
+    public void setEnemyDensity(float enemyDensity) {
+        this.enemyDensity = enemyDensity;
+    }
+
+    /**
+     * Number of keys, at least one so the exit can open.
+     */
+    public void setKeys(int keys) {
+        this.keys = Math.max(1, keys);
+    }
+
+    /**
+     * Generates a maze with the entry on the left border, the exit on the right border,
+     * and keys, traps and enemies spread over the passages.
+     *
+     * @param width  at least 5, rounded up to an odd number
+     * @param height at least 5, rounded up to an odd number
+     */
+    public TileMap generate(int width, int height, long seed) {
+        if (width < 5 || height < 5) {
+            throw new IllegalArgumentException("Maze too small: " + width + "x" + height);
+        }
+        width |= 1;
+        height |= 1;
+        TileMap tileMap = new TileMap(width, height);
+        byte[] tiles = tileMap.getTiles();
+        for (int x = 0; x < width; x++) {
+            tiles[x] = TileMap.WALL;
+            tiles[(height - 1) * width + x] = TileMap.WALL;
+        }
+        for (int y = 0; y < height; y++) {
+            tiles[y * width] = TileMap.WALL;
+            tiles[y * width + width - 1] = TileMap.WALL;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        ForkJoinPool.commonPool().invoke(new Division(tiles, width, 1, 1, width - 2, height - 2, random.split()));
+        populate(tileMap, random);
+        return tileMap;
+    }
+
+    // Places the entry, the exit, the keys, and then traps and enemies strip by strip in parallel
+    private void populate(TileMap tileMap, SplittableRandom random) {
+        int width = tileMap.getWidth();
+        int height = tileMap.getHeight();
+        int cellsY = (height - 1) / 2;
+        tileMap.set(0, 1 + 2 * random.nextInt(cellsY), TileMap.ENTRY);
+        tileMap.set(width - 1, 1 + 2 * random.nextInt(cellsY), TileMap.EXIT);
+        for (int placed = 0; placed < keys; ) {
+            int x = 1 + random.nextInt(width - 2);
+            int y = 1 + random.nextInt(height - 2);
+            if (tileMap.get(x, y) == TileMap.EMPTY) {
+                tileMap.set(x, y, TileMap.KEY);
+                placed++;
+            }
+        }
+
+        byte[] tiles = tileMap.getTiles();
+        // The tiles next to the entry stay free so the player never spawns on a trap or an enemy
+        int spawn = 0;
+        while (tiles[spawn * width] != TileMap.ENTRY) {
+            spawn++;
+        }
+        int spawnY = spawn;
+        long stripSeed = random.nextLong();
+        int strips = (height + STRIP_ROWS - 1) / STRIP_ROWS;
+        IntStream.range(0, strips).parallel().forEach(strip -> {
+            SplittableRandom stripRandom = new SplittableRandom(stripSeed + strip);
+            int end = Math.min(height, (strip + 1) * STRIP_ROWS);
+            for (int y = strip * STRIP_ROWS; y < end; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (tiles[y * width + x] != TileMap.EMPTY || (x < 4 && Math.abs(y - spawnY) < 4)) {
+                        continue;
+                    }
+                    double roll = stripRandom.nextDouble();
+                    if (roll < trapDensity) {
+                        tiles[y * width + x] = TileMap.TRAP;
+                    } else if (roll < trapDensity + enemyDensity) {
+                        tiles[y * width + x] = TileMap.ENEMY;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Divides the chamber of free tiles from (left, bottom) to (right, top), all odd and inclusive.
+     */
+    // Only ever run on the pool, never serialized
+    @SuppressWarnings("serial")
+    private static class Division extends RecursiveAction {
+        private final byte[] tiles;
+        private final int width;
+        private final int left, bottom, right, top;
+        private final SplittableRandom random;
+
+        Division(byte[] tiles, int width, int left, int bottom, int right, int top, SplittableRandom random) {
+            this.tiles = tiles;
+            this.width = width;
+            this.left = left;
+            this.bottom = bottom;
+            this.right = right;
+            this.top = top;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            divide(left, bottom, right, top);
+        }
+
+        private void divide(int left, int bottom, int right, int top) {
+            int cellsX = (right - left) / 2 + 1;
+            int cellsY = (top - bottom) / 2 + 1;
+            if (cellsX < 2 || cellsY < 2) {
+                return;
+            }
+            boolean horizontal = cellsY > cellsX || (cellsY == cellsX && random.nextBoolean());
+            int wall, gap;
+            if (horizontal) {
+                wall = bottom + 1 + 2 * random.nextInt(cellsY - 1);
+                gap = left + 2 * random.nextInt(cellsX);
+                for (int x = left; x <= right; x++) {
+                    if (x != gap) {
+                        tiles[wall * width + x] = TileMap.WALL;
+                    }
+                }
+            } else {
+                wall = left + 1 + 2 * random.nextInt(cellsX - 1);
+                gap = bottom + 2 * random.nextInt(cellsY);
+                for (int y = bottom; y <= top; y++) {
+                    if (y != gap) {
+                        tiles[y * width + wall] = TileMap.WALL;
+                    }
+                }
+            }
+
+            if ((right - left + 1) * (top - bottom + 1) < PARALLEL_AREA) {
+                if (horizontal) {
+                    divide(left, bottom, right, wall - 1);
+                    divide(left, wall + 1, right, top);
+                } else {
+                    divide(left, bottom, wall - 1, top);
+                    divide(wall + 1, bottom, right, top);
+                }
+            } else if (horizontal) {
+                invokeAll(new Division(tiles, width, left, bottom, right, wall - 1, random.split()),
+                        new Division(tiles, width, left, wall + 1, right, top, random.split()));
+            } else {
+                invokeAll(new Division(tiles, width, left, bottom, wall - 1, top, random.split()),
+                        new Division(tiles, width, wall + 1, bottom, right, top, random.split()));
+            }
+        }
+    }
+
+    /**
+     * Writes a maze in the binary {@code .maze} format if the file name ends with it,
+     * otherwise in the {@code x,y=value} text format, leaving out empty tiles like the level files do.
+     */
+    public static void write(TileMap tileMap, Path path) throws IOException {
+        if (path.getFileName().toString().endsWith("." + BinaryMapFormat.EXTENSION)) {
+            BinaryMapFormat.write(tileMap, true, path);
+            return;
+        }
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            byte[] line = new byte[32];
+            for (int y = 0; y < tileMap.getHeight(); y++) {
+                for (int x = 0; x < tileMap.getWidth(); x++) {
+                    int tile = tileMap.get(x, y);
+                    if (tile == TileMap.EMPTY) {
+                        continue;
+                    }
+                    int length = putNumber(line, 0, x);
+                    line[length++] = ',';
+                    length = putNumber(line, length, y);
+                    line[length++] = '=';
+                    length = putNumber(line, length, tile);
+                    line[length++] = '\n';
+                    output.write(line, 0, length);
+                }
+            }
+        }
+    }
+
+    // Writes the decimal digits of a non-negative number and returns the position after them
+    private static int putNumber(byte[] buffer, int position, int number) {
+        int end = position + (number == 0 ? 1 : (int) Math.log10(number) + 1);
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+        return end;
+    }
+}
@@ -1,8 +1,9 @@
 package de.tum.cit.ase.maze;
 
+import com.badlogic.gdx.Files.FileType;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -10,15 +11,57 @@
 import com.badlogic.gdx.utils.Array;
 import games.spooky.gdx.nativefilechooser.NativeFileChooser;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 public class MazeRunnerGame extends Game {
+    private static final String SKIN_FILE = "craft/craftacular-ui.json";
+    /**
+     * Where the game keeps what it writes for the player, e.g. the map cache. Not the working directory,
+     * which is the packaged assets directory when run from the desktop project.
+     */
+    public static final Path USER_DIRECTORY = Path.of(System.getProperty("user.home"), ".maze-runner");
+    /** Where every played level is recorded; only the newest {@link #MAX_REPLAYS} are kept. */
+    public static final Path REPLAY_DIRECTORY = USER_DIRECTORY.resolve("replays");
+    public static final int MAX_REPLAYS = 20;
+    /** The level left last, autosaved while playing and saved on pause, see {@link GameSnapshot}. */
+    public static final Path SAVE_FILE = USER_DIRECTORY.resolve("savegame." + GameSnapshot.EXTENSION);
 
     private SpriteBatch spriteBatch;
     private Skin skin;
+    private SpriteAtlas spriteAtlas;
+    private AssetCache assets;
+    private AudioManager audio;
     private Animation<TextureRegion> characterDownAnimation;
     private MenuScreen menuScreen;
     private GameScreen gameScreen;
+    private LoadingScreen loadingScreen;
+    private LevelLoader levelLoader;
     private final Maps maps;
+    private final LevelCatalog levelCatalog = new LevelCatalog(MapCache.inUserHome());
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Not a daemon, so a save being written when the game closes is finished
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "save-writer"));
     private boolean paused = false;
+    // The state of the paused level, whose screen was disposed
+    private GameSnapshot savedGame;
+    // What the level being loaded is recorded as, or the replay to show instead of playing it
+    private String levelName = "";
+    private long levelSeed;
+    private Replay pendingReplay;
+    private GameSnapshot pendingSnapshot;
+    // Off unless the player chose it, levels keep their look by default
+    private boolean fogOfWar;
 
     public MazeRunnerGame(NativeFileChooser fileChooser) {
         maps = new Maps(fileChooser, this);
@@ -26,36 +69,40 @@ public MazeRunnerGame(NativeFileChooser fileChooser) {
     @Override
     public void create() {
         spriteBatch = new SpriteBatch();
-        skin = new Skin(Gdx.files.internal("craft/craftacular-ui.json"));
+        assets = new AssetCache();
+        skin = assets.acquire(SKIN_FILE, Skin.class);
+        spriteAtlas = new SpriteAtlas(assets);
         maps.configureMaps();
+        prefetchLevels();
         loadCharacterAnimation();
+        // Queued last, the loads above would otherwise wait for the audio files
+        audio = new AudioManager(assets);
         goToMenu();
     }
 
-    private void loadCharacterAnimation() {
-        Texture walkSheet = new Texture(Gdx.files.internal("character.png"));
-        int frameWidth = 16;
-        int frameHeight = 32;
-        int animationFrames = 4;
-
-        Array<TextureRegion> walkFrames = new Array<>(TextureRegion.class);
-        for (int col = 0; col < animationFrames; col++) {
-            walkFrames.add(new TextureRegion(walkSheet, col * frameWidth, 0, frameWidth, frameHeight));
+    // Parses the bundled levels in the background while the menu is shown
+    private void prefetchLevels() {
+        levelCatalog.prefetch(maps.getDefaultMapFile());
+        for (int level = 1; level <= MenuScreen.LEVEL_COUNT; level++) {
+            levelCatalog.prefetch(Maps.levelFile(level));
         }
+    }
 
+    private void loadCharacterAnimation() {
+        Array<TextureRegion> walkFrames = spriteAtlas.findFrames(SpriteAtlas.CHARACTER_DOWN);
         characterDownAnimation = new Animation<>(0.1f, walkFrames);
-        walkSheet.dispose();
+    }
+
+    @Override
+    public void render() {
+        super.render();
+        audio.update(Gdx.graphics.getDeltaTime());
     }
 
     public void goToMenu() {
-        if (gameScreen != null&& !paused) {
-            gameScreen.hide(); // Stop game screen music
-        }
+        // The screens pick their music in show(), the audio manager fades between them
         if (menuScreen == null) {
             menuScreen = new MenuScreen(this);
-        }else {if (!paused) {
-            menuScreen.playMenuMusic();
-        }
         }
         setScreen(menuScreen);
         if (!paused) {
@@ -63,28 +110,237 @@ public void goToMenu() {
         }
     }
     public void goToGame () {
-        if (menuScreen != null&& !paused) {
-            menuScreen.hide(); // Stop menu music
-        }
             if (paused && gameScreen != null) {
                 paused = false;
                 setScreen(gameScreen);
             }
+            else if (paused && savedGame != null) {
+                resumeSavedGame();
+            }
             else {
-                int[][] defaultMazeData = maps.loadDefaultMazeData();
-                if (defaultMazeData != null) {
-                    startGameWithMaze(defaultMazeData);
-                    gameScreen.playGameMusic();
-                }
+                loadLevel(maps.getDefaultMapFile());
+            }
+    }
+    public void startGameWithMaze(TileMap tileMap) {
+        setLevelSource("", 0, null);
+        startLoading(() -> LevelCatalog.Entry.of(tileMap));
+    }
+
+    /**
+     * Loads a map file in the background while a {@link LoadingScreen} shows the progress.
+     * Levels the {@link LevelCatalog} has prepared already start right away.
+     */
+    public void loadLevel(FileHandle file) {
+        setLevelSource(file.type() == FileType.Internal ? file.path() : file.file().getAbsolutePath(), 0, null);
+        startLoading(() -> levelCatalog.load(file));
+    }
+
+    /**
+     * Generates a new maze with {@link MazeGenerator} in the background and plays it.
+     */
+    public void generateLevel(int width, int height, long seed) {
+        System.out.println("Generating " + width + "x" + height + " maze with seed " + seed);
+        setLevelSource(Replay.GENERATED + " " + width + "x" + height, seed, null);
+        startLoading(() -> LevelCatalog.Entry.of(new MazeGenerator().generate(width, height, seed)));
+    }
+
+    /**
+     * Shows a recorded playthrough of a level, see {@link Replay}. The level is loaded like any other,
+     * and must not have changed since the replay was recorded.
+     */
+    public void playReplay(Path file) {
+        Replay replay;
+        try {
+            replay = Replay.read(file);
+        } catch (IOException e) {
+            System.out.println("Could not read replay " + file + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Playing replay of " + replay.getLevel() + ", " + replay.getTickCount() + " ticks");
+        setLevelSource(replay.getLevel(), replay.getSeed(), replay);
+        startLoading(() -> {
+            LevelCatalog.Entry level = loadLevelSource(replay.getLevel(), replay.getSeed(), replay.getWidth(), replay.getHeight());
+            if (!replay.matches(level.getTileMap())) {
+                throw new IOException("The replay was recorded on a different map than " + replay.getLevel());
+            }
+            return level;
+        });
+    }
+
+    /**
+     * Shows the most recently recorded replay, if there is one.
+     */
+    public void playLastReplay() {
+        try {
+            Path latest = Replay.findLatest(REPLAY_DIRECTORY);
+            if (latest == null) {
+                System.out.println("No replays in " + REPLAY_DIRECTORY.toAbsolutePath());
+                return;
+            }
+            playReplay(latest);
+        } catch (IOException e) {
+            System.out.println("Could not look for replays: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Leaves the level for the pause menu. The level's state is saved and its screen disposed, so no GL resources
+     * stay in use; levels that cannot be loaded again keep their screen instead.
+     */
+    public void pauseGame() {
+        paused = true;
+        if (gameScreen == null || !gameScreen.isResumable()) {
+            goToMenu();
+            return;
+        }
+        savedGame = gameScreen.takeSnapshot();
+        writeSave(savedGame);
+        goToMenu();
+        disposeGameScreen();
+    }
+
+    /**
+     * Continues the level left last, from the pause menu or, after a restart, from {@link #SAVE_FILE}.
+     * The level is loaded again and the saved state restored into it.
+     */
+    public void resumeSavedGame() {
+        GameSnapshot snapshot = savedGame;
+        if (snapshot == null) {
+            try {
+                snapshot = GameSnapshot.read(SAVE_FILE);
+            } catch (IOException e) {
+                System.out.println("Could not read saved game: " + e.getMessage());
+                return;
+            }
+        }
+        GameSnapshot resumed = snapshot;
+        setLevelSource(resumed.getLevel(), resumed.getSeed(), null);
+        pendingSnapshot = resumed;
+        startLoading(() -> {
+            LevelCatalog.Entry level = loadLevelSource(resumed.getLevel(), resumed.getSeed(), resumed.getWidth(), resumed.getHeight());
+            if (!resumed.matches(level.getTileMap())) {
+                throw new IOException("The game was saved on a different map than " + resumed.getLevel());
+            }
+            return level;
+        });
+    }
+
+    public boolean hasSavedGame() {
+        return savedGame != null || Files.isRegularFile(SAVE_FILE);
+    }
+
+    /**
+     * Writes a snapshot to {@link #SAVE_FILE} in the background.
+     *
+     * @return done once the file is written; the snapshot must not be changed before
+     */
+    public Future<?> writeSave(GameSnapshot snapshot) {
+        return saveExecutor.submit(() -> {
+            try {
+                snapshot.write(SAVE_FILE);
+            } catch (IOException e) {
+                System.out.println("Could not save game: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Forgets the saved game, e.g. once its level is won or lost.
+     */
+    public void deleteSave() {
+        savedGame = null;
+        // After any write still queued
+        saveExecutor.execute(() -> {
+            try {
+                Files.deleteIfExists(SAVE_FILE);
+            } catch (IOException e) {
+                System.out.println("Could not delete saved game: " + e.getMessage());
             }
+        });
     }
-    public void startGameWithMaze(int[][] mazeData) {
+
+    // Loads a level by the name it was recorded under, see Replay#getLevel()
+    private LevelCatalog.Entry loadLevelSource(String level, long seed, int width, int height) throws IOException {
+        if (level.startsWith(Replay.GENERATED)) {
+            return LevelCatalog.Entry.of(new MazeGenerator().generate(width, height, seed));
+        }
+        FileHandle file = Gdx.files.internal(level);
+        return levelCatalog.load(file.exists() ? file : Gdx.files.absolute(level));
+    }
+
+    private void setLevelSource(String levelName, long levelSeed, Replay replay) {
+        this.levelName = levelName;
+        this.levelSeed = levelSeed;
+        this.pendingReplay = replay;
+        this.pendingSnapshot = null;
+    }
+
+    private void startLoading(Callable<LevelCatalog.Entry> source) {
+        cancelLoading();
+        paused = false;
         disposeMenuScreen();
-        if (gameScreen != null) {
-            gameScreen.dispose();
+        disposeGameScreen();
+        levelLoader = new LevelLoader(this, loadExecutor, source);
+        loadingScreen = new LoadingScreen(this, levelLoader);
+        setScreen(loadingScreen);
+    }
+
+    /**
+     * Called by the {@link LoadingScreen} once the level is ready.
+     */
+    public void finishLoading(GameScreen loadedScreen) {
+        levelLoader = null;
+        gameScreen = loadedScreen;
+        gameScreen.setLevelSource(levelName, levelSeed);
+        if (pendingReplay != null) {
+            gameScreen.playReplay(pendingReplay);
+            pendingReplay = null;
+        } else {
+            boolean restored = false;
+            if (pendingSnapshot != null) {
+                restored = gameScreen.restoreSnapshot(pendingSnapshot);
+                if (!restored) {
+                    // A damaged save would fail again next time, the level starts over instead
+                    deleteSave();
+                }
+                pendingSnapshot = null;
+                savedGame = null;
+            }
+            // The replay would have to start at the first tick, so a continued level is not recorded
+            if (!restored) {
+                try {
+                    gameScreen.startRecording(ReplayRecorder.nextFile(REPLAY_DIRECTORY, MAX_REPLAYS));
+                } catch (IOException e) {
+                    System.out.println("Could not record replay: " + e.getMessage());
+                }
+            }
         }
-        gameScreen = new GameScreen(this, mazeData);
         setScreen(gameScreen);
+        disposeLoadingScreen();
+    }
+
+    /**
+     * Stops a level load in flight, if any, and returns to the menu.
+     */
+    public void cancelLoading() {
+        if (levelLoader == null) {
+            return;
+        }
+        levelLoader.cancel();
+        levelLoader = null;
+        goToMenu();
+        disposeLoadingScreen();
+    }
+
+    public boolean isLoading() {
+        return levelLoader != null;
+    }
+
+    private void disposeLoadingScreen() {
+        if (loadingScreen != null) {
+            loadingScreen.dispose();
+            loadingScreen = null;
+        }
     }
 
     public void loadMaps() {
@@ -97,11 +353,36 @@ public void dispose() {
             screen.hide();
             screen.dispose();
         }
+        // A paused level is not the current screen, but its replay still has to be finished
+        if (gameScreen != null && gameScreen != screen) {
+            gameScreen.dispose();
+        }
+        if (levelLoader != null) {
+            levelLoader.cancel();
+        }
+        loadExecutor.shutdownNow();
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        levelCatalog.dispose();
+        disposeLoadingScreen();
         if (spriteBatch != null) {
             spriteBatch.dispose();
         }
         if (skin != null) {
-            skin.dispose();
+            assets.release(SKIN_FILE);
+        }
+        if (spriteAtlas != null) {
+            spriteAtlas.dispose();
+        }
+        if (audio != null) {
+            audio.dispose();
+        }
+        if (assets != null) {
+            assets.dispose();
         }
     }
 
@@ -126,6 +407,17 @@ public void setPaused(boolean paused) {
         this.paused = paused;
     }
 
+    /**
+     * Whether levels start with fog of war; F6 in a level switches it for that level and the ones after.
+     */
+    public boolean isFogOfWar() {
+        return fogOfWar;
+    }
+
+    public void setFogOfWar(boolean fogOfWar) {
+        this.fogOfWar = fogOfWar;
+    }
+
     public SpriteBatch getSpriteBatch() {
         return spriteBatch;
     }
@@ -134,6 +426,31 @@ public Skin getSkin() {
         return skin;
     }
 
+    /**
+     * The shared asset cache; screens borrow textures and audio from it instead of loading their own.
+     */
+    public AssetCache getAssets() {
+        return assets;
+    }
+
+    /**
+     * The parsed levels, e.g. for showing their stats without loading them.
+     */
+    public LevelCatalog getLevelCatalog() {
+        return levelCatalog;
+    }
+
+    /**
+     * Music and sound effects, shared by all screens.
+     */
+    public AudioManager getAudio() {
+        return audio;
+    }
+
+    public SpriteAtlas getSpriteAtlas() {
+        return spriteAtlas;
+    }
+
     public Animation<TextureRegion> getCharacterDownAnimation() {
         return characterDownAnimation;
     }
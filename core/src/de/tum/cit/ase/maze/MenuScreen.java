@@ -15,18 +15,29 @@
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Future;
+
 /**
  * The MenuScreen class is responsible for displaying the main menu of the game.
  * It extends the LibGDX Screen class and sets up the UI components for the menu.
  */
 public class MenuScreen implements Screen {
+    /** Number of bundled levels, maps/level-1 to maps/level-N. */
+    public static final int LEVEL_COUNT = 5;
+    // Side length of the mazes made by the Generate button
+    private static final int GENERATED_SIZE = 255;
 
     private final Stage stage;
     private final MazeRunnerGame game;
-    private TextButton loadMap, resumeGame, exit, returnMenu, newGame, goToGameButton;
-    private TextButton level1, level2, level3, level4, level5, custom;
+    private TextButton loadMap, resumeGame, exit, returnMenu, newGame, goToGameButton, replay, continueGame;
+    private TextButton level1, level2, level3, level4, level5, custom, generate;
     private Label welcomeLabel, pausedLabel, gameOver, victory,levelLabel;
     private boolean pauseMenuVisible,visible;
+    // Level buttons whose stats are not shown yet, with the level the catalog is parsing for them
+    private final Map<TextButton, Future<LevelCatalog.Entry>> pendingStats = new HashMap<>();
 
     // Setter methods for injecting UI components from external classes
     public void setLoadMap(TextButton loadMap) {
@@ -92,7 +103,7 @@ public MenuScreen(MazeRunnerGame game) {
 
         // Create the stage for UI elements
         stage = new Stage(viewport, game.getSpriteBatch());
-         pauseMenuVisible=game.getPaused();
+         pauseMenuVisible=game.isPaused();
          visible=false;
         // Set up the main menu and pause menu
         mainMenu();
@@ -160,11 +171,13 @@ public void mainMenu() {
         goToGameButton = createButton("Play", this::goToGame,!pauseMenuVisible);
 
         // Create buttons for additional menu options
+        continueGame = createButton("Continue", game::resumeSavedGame,!pauseMenuVisible && game.hasSavedGame());
         loadMap = createButton("Levels", this::showLevelsMenu,!pauseMenuVisible);
+        replay = createButton("Last Replay", game::playLastReplay,!pauseMenuVisible);
         exit = createButton("Exit", Gdx.app::exit,!pauseMenuVisible);
 
         // Add buttons to main menu
-        addElementsToTable(tableM, welcomeLabel, goToGameButton, loadMap, exit);
+        addElementsToTable(tableM, welcomeLabel, goToGameButton, continueGame, loadMap, replay, exit);
     }
 
     /**
@@ -181,7 +194,7 @@ public void pauseMenu() {
         tableP.add(pausedLabel).padBottom(80).row();
         pausedLabel.setAlignment(Align.center);
         // Add buttons to the paused menu
-        resumeGame = createButton("Resume", game::resume,pauseMenuVisible);
+        resumeGame = createButton("Resume", game::goToGame,pauseMenuVisible);
         newGame = createButton("New Game", this::goToGame,pauseMenuVisible);
         loadMap = createButton("Load Map", this::showLevelsMenu,pauseMenuVisible);
         returnMenu = createButton("Quit to Main Menu",() -> {
@@ -209,21 +222,53 @@ public void levelsMenu(boolean visible) {
         tableL.add(levelLabel).padBottom(80).row();
         levelLabel.setAlignment(Align.center);
 
-        level1 = createButton("Level 1", () -> game.getGameScreen().loadMap("level1"),visible);
-        level2 = createButton("Level 2", () -> game.getGameScreen().loadMap("level2"),visible);
-        level3 = createButton("Level 3", () -> game.getGameScreen().loadMap("level3"),visible);
-        level4 = createButton("Level 4", () -> game.getGameScreen().loadMap("level4"),visible);
-        level5 = createButton("Level 5", () -> game.getGameScreen().loadMap("level5"),visible);
+        level1 = createButton("Level 1", () -> game.loadLevel(Maps.levelFile(1)),visible);
+        level2 = createButton("Level 2", () -> game.loadLevel(Maps.levelFile(2)),visible);
+        level3 = createButton("Level 3", () -> game.loadLevel(Maps.levelFile(3)),visible);
+        level4 = createButton("Level 4", () -> game.loadLevel(Maps.levelFile(4)),visible);
+        level5 = createButton("Level 5", () -> game.loadLevel(Maps.levelFile(5)),visible);
+        if (visible) {
+            TextButton[] levelButtons = {level1, level2, level3, level4, level5};
+            for (int i = 0; i < LEVEL_COUNT; i++) {
+                pendingStats.put(levelButtons[i], game.getLevelCatalog().request(Maps.levelFile(i + 1)));
+            }
+            showLevelStats();
+        }
         custom = createButton("Custom", this::loadCustomMap,visible);
+        generate = createButton("Generate", this::generateMap,visible);
         returnMenu = createButton("Back", this::goBackToMainMenu,visible);
 
         // Add buttons to levels menu
-        addElementsToTable(tableL, level1, level2, level3, level4, level5, custom, returnMenu);
+        addElementsToTable(tableL, level1, level2, level3, level4, level5, custom, generate, returnMenu);
+    }
+
+    // Adds size and route length to the level buttons, for the levels the catalog has parsed
+    private void showLevelStats() {
+        Iterator<Map.Entry<TextButton, Future<LevelCatalog.Entry>>> pending = pendingStats.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<TextButton, Future<LevelCatalog.Entry>> stats = pending.next();
+            if (!stats.getValue().isDone()) {
+                continue;
+            }
+            // A level that failed to parse keeps its plain name, loading it shows why
+            LevelCatalog.Entry entry = LevelCatalog.getIfReady(stats.getValue());
+            if (entry != null) {
+                TextButton button = stats.getKey();
+                button.setText(button.getText() + " - " + entry.getSummary());
+                button.setUserObject(entry);
+            }
+            pending.remove();
+        }
     }
 
-    // Placeholder for loading a custom map (you can implement the logic)
+    // Opens the file chooser, the chosen map is loaded in the background
     private void loadCustomMap() {
-        // Implement logic for loading a custom map
+        game.loadMaps();
+    }
+
+    // Plays a freshly generated maze, a new one every time
+    private void generateMap() {
+        game.generateLevel(GENERATED_SIZE, GENERATED_SIZE, System.nanoTime());
     }
 
     // Action to go back to the main menu from levels menu
@@ -246,6 +291,9 @@ private void goToGame() {
     @Override
     public void render(float delta) {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT); // Clear the screen
+        if (!pendingStats.isEmpty()) {
+            showLevelStats();
+        }
         stage.act(Math.min(Gdx.graphics.getDeltaTime(), 1 / 30f)); // Update the stage
         stage.draw(); // Draw the stage
     }
@@ -263,10 +311,16 @@ public void dispose() {
     @Override
     public void show() {
         Gdx.input.setInputProcessor(stage);
+        // The pause menu stays silent, the main menu fades in its music
+        if (game.isPaused()) {
+            game.getAudio().stopMusic();
+        } else {
+            game.getAudio().playMusic(AudioManager.MENU_MUSIC);
+        }
         resume();
     }
 
-    // Other lifecycle methods (pause, resume, hide) are kept empty
+    // Other lifecycle methods (pause, resume) are kept empty
     @Override
     public void pause() {
     }
@@ -277,6 +331,5 @@ public void resume() {
 
     @Override
     public void hide() {
-        pause();
     }
 }
@@ -0,0 +1,123 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Draws the numbers of a {@link FrameProfiler} in the top left corner of the screen: p50, p95 and p99 of every
+ * phase, the batch and memory counters, and a graph of the recent frame times with the percentiles as lines.
+ * The text is only rebuilt a few times per second, so the overlay itself barely shows up in the numbers.
+ */
+public class ProfilerOverlay implements Disposable {
+    private static final int REFRESH_FRAMES = 15;
+    private static final float MARGIN = 10;
+    private static final float GRAPH_HEIGHT = 80;
+    // Frame time at the top of the graph, in nanoseconds
+    private static final float GRAPH_SCALE_NANOS = 33_333_333;
+
+    private final FrameProfiler profiler;
+    private final BitmapFont font;
+    private final ShapeRenderer shapes = new ShapeRenderer();
+    private final Matrix4 projection = new Matrix4();
+    private final StringBuilder text = new StringBuilder();
+    private long p50, p95, p99;
+    private int framesSinceRefresh = REFRESH_FRAMES;
+
+    /**
+     * @param font a font owned by someone else, e.g. the skin's
+     */
+    public ProfilerOverlay(FrameProfiler profiler, BitmapFont font) {
+        this.profiler = profiler;
+        this.font = font;
+    }
+
+    public void draw(SpriteBatch batch, int screenWidth, int screenHeight) {
+        if (++framesSinceRefresh >= REFRESH_FRAMES) {
+            framesSinceRefresh = 0;
+            refreshText();
+        }
+        projection.setToOrtho2D(0, 0, screenWidth, screenHeight);
+        float graphTop = screenHeight - MARGIN;
+        float graphWidth = FrameProfiler.HISTORY * 2;
+
+        shapes.setProjectionMatrix(projection);
+        shapes.begin(ShapeRenderer.ShapeType.Line);
+        shapes.setColor(Color.GRAY);
+        shapes.rect(MARGIN, graphTop - GRAPH_HEIGHT, graphWidth, GRAPH_HEIGHT);
+        shapes.setColor(Color.GREEN);
+        int count = profiler.getSampleCount();
+        for (int i = 1; i < count; i++) {
+            float x = MARGIN + graphWidth - 2 * i;
+            shapes.line(x, graphY(profiler.getSample(FrameProfiler.PHASES, i - 1), graphTop),
+                    x - 2, graphY(profiler.getSample(FrameProfiler.PHASES, i), graphTop));
+        }
+        drawLevel(p50, Color.WHITE, graphTop, graphWidth);
+        drawLevel(p95, Color.YELLOW, graphTop, graphWidth);
+        drawLevel(p99, Color.RED, graphTop, graphWidth);
+        shapes.end();
+
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        font.draw(batch, text, MARGIN, graphTop - GRAPH_HEIGHT - MARGIN);
+        batch.end();
+    }
+
+    private float graphY(long nanos, float graphTop) {
+        return graphTop - GRAPH_HEIGHT + Math.min(1, nanos / GRAPH_SCALE_NANOS) * GRAPH_HEIGHT;
+    }
+
+    private void drawLevel(long nanos, Color color, float graphTop, float graphWidth) {
+        shapes.setColor(color);
+        float y = graphY(nanos, graphTop);
+        shapes.line(MARGIN, y, MARGIN + graphWidth, y);
+    }
+
+    private void refreshText() {
+        p50 = profiler.getPercentile(FrameProfiler.PHASES, 50);
+        p95 = profiler.getPercentile(FrameProfiler.PHASES, 95);
+        p99 = profiler.getPercentile(FrameProfiler.PHASES, 99);
+        text.setLength(0);
+        text.append("phase     p50 / p95 / p99 (ms)\n");
+        for (int phase = 0; phase < FrameProfiler.PHASES; phase++) {
+            appendPhase(FrameProfiler.PHASE_NAMES[phase], profiler.getPercentile(phase, 50),
+                    profiler.getPercentile(phase, 95), profiler.getPercentile(phase, 99));
+        }
+        appendPhase("frame", p50, p95, p99);
+        text.append("render calls ").append(profiler.getRenderCalls())
+                .append("  texture binds ").append(profiler.getTextureBinds()).append('\n')
+                .append("heap ").append(profiler.getHeapUsed() / (1024 * 1024)).append(" MB")
+                .append("  gc ").append(profiler.getGcCount()).append(" (").append(profiler.getGcMillis()).append(" ms)");
+        if (profiler.isWritingCsv()) {
+            text.append("\nrecording CSV");
+        }
+    }
+
+    private void appendPhase(String name, long p50, long p95, long p99) {
+        text.append(name).append(": ");
+        appendMillis(p50);
+        text.append(" / ");
+        appendMillis(p95);
+        text.append(" / ");
+        appendMillis(p99);
+        text.append('\n');
+    }
+
+    // Milliseconds with two decimals, without String.format garbage
+    private void appendMillis(long nanos) {
+        long hundredths = nanos / 10_000;
+        text.append(hundredths / 100).append('.');
+        if (hundredths % 100 < 10) {
+            text.append('0');
+        }
+        text.append(hundredths % 100);
+    }
+
+    @Override
+    public void dispose() {
+        shapes.dispose();
+    }
+}
@@ -0,0 +1,62 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Per-frame counters of the world renderer, reset at the start of every frame.
+ */
+public class RenderStats {
+    private int objectsDrawn;
+    private int objectsSkipped;
+    private int batchFlushes;
+    private int textureBinds;
+
+    public void reset() {
+        objectsDrawn = 0;
+        objectsSkipped = 0;
+        batchFlushes = 0;
+        textureBinds = 0;
+    }
+
+    public void addDrawn(int count) {
+        objectsDrawn += count;
+    }
+
+    public void addSkipped(int count) {
+        objectsSkipped += count;
+    }
+
+    public int getObjectsDrawn() {
+        return objectsDrawn;
+    }
+
+    public int getObjectsSkipped() {
+        return objectsSkipped;
+    }
+
+    /**
+     * Number of times the SpriteBatch flushed, see {@link com.badlogic.gdx.graphics.g2d.SpriteBatch#renderCalls}.
+     */
+    public int getBatchFlushes() {
+        return batchFlushes;
+    }
+
+    public void setBatchFlushes(int batchFlushes) {
+        this.batchFlushes = batchFlushes;
+    }
+
+    /**
+     * Number of glBindTexture calls, as counted by GLProfiler; 0 while the frame profiler is off.
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    public void setTextureBinds(int textureBinds) {
+        this.textureBinds = textureBinds;
+    }
+
+    @Override
+    public String toString() {
+        return "drawn=" + objectsDrawn + " skipped=" + objectsSkipped
+                + " flushes=" + batchFlushes + " binds=" + textureBinds;
+    }
+}
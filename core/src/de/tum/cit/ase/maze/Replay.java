@@ -0,0 +1,228 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A recorded playthrough, read from a file written by {@link ReplayRecorder}. The {@link MazeEngine} has no
+ * randomness and runs in fixed ticks, so the level, the seed of a generated level and the input of every tick
+ * are enough to play it again exactly, see {@link ReplayPlayer}. A checksum of the tiles tells whether a map
+ * is still the one the replay was recorded on.
+ * File layout: magic, version, tick rate, tick count, seed, map width, height and checksum, level name,
+ * then the input changes as varints of {@code ticksSinceLastChange << 4 | input}.
+ */
+public class Replay {
+    public static final String EXTENSION = "replay";
+    /** Start of the {@link #getLevel() level} of generated mazes, followed by the size. */
+    public static final String GENERATED = "generated";
+    static final int MAGIC = 0x4D5A5250;
+    // Bump when the layout changes or the engine changes so that old inputs lead elsewhere
+    static final byte VERSION = 1;
+    static final int TICK_COUNT_OFFSET = 9;
+    static final int INPUT_BITS = 4;
+    static final int INPUT_MASK = (1 << INPUT_BITS) - 1;
+    static final int MAX_LEVEL_BYTES = 4096;
+
+    private int tickRate, tickCount;
+    private long seed;
+    private int width, height, checksum;
+    private String level;
+    // The tick at which each input change happens, and the input from then on; the input starts as 0
+    private int[] changeTicks = new int[64];
+    private byte[] changeInputs = new byte[64];
+    private int changeCount;
+
+    private Replay() {
+    }
+
+    /**
+     * Plays a replay without a window as fast as possible and prints where it ends.
+     * The map is taken from the replay's level unless one is given.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: Replay <file.replay> [map file]");
+            return;
+        }
+        Replay replay = read(Path.of(args[0]));
+        TileMap tileMap;
+        if (args.length > 1) {
+            tileMap = Maps.loadMazeData(new FileHandle(args[1]));
+        } else if (replay.isGenerated()) {
+            tileMap = new MazeGenerator().generate(replay.width, replay.height, replay.seed);
+        } else {
+            File file = new File(replay.level);
+            tileMap = Maps.loadMazeData(new FileHandle(file.exists() ? file : new File("assets", replay.level)));
+        }
+        if (!replay.matches(tileMap)) {
+            System.out.println("The replay was recorded on a different map than " + replay.level);
+            return;
+        }
+        long start = System.nanoTime();
+        MazeEngine engine = replay.simulate(tileMap);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double played = (double) engine.getTicks() / replay.tickRate;
+        System.out.printf("%s: %d of %d ticks (%.0f s of play) in %.3f s, %.0fx real time%n", replay.level,
+                engine.getTicks(), replay.tickCount, played, seconds, played / seconds);
+        System.out.printf("Ended %s at %.2f, %.2f with %d lives and %d keys%n", engine.getState(),
+                engine.getPlayerX(), engine.getPlayerY(), engine.getLives(), engine.getKeys());
+    }
+
+    public static Replay read(Path file) throws IOException {
+        try {
+            return read(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay is cut off: " + file, e);
+        }
+    }
+
+    private static Replay read(ByteBuffer in) throws IOException {
+        if (in.remaining() < TICK_COUNT_OFFSET || in.getInt() != MAGIC || in.get() != VERSION) {
+            throw new IOException("Not a replay of version " + VERSION);
+        }
+        Replay replay = new Replay();
+        replay.tickRate = in.getInt();
+        replay.tickCount = in.getInt();
+        replay.seed = in.getLong();
+        replay.width = in.getInt();
+        replay.height = in.getInt();
+        replay.checksum = in.getInt();
+        byte[] name = new byte[in.getShort() & 0xFFFF];
+        in.get(name);
+        replay.level = new String(name, StandardCharsets.UTF_8);
+        if (replay.tickRate <= 0) {
+            throw new IOException("Invalid tick rate " + replay.tickRate);
+        }
+        int tick = 0;
+        while (in.hasRemaining()) {
+            long record = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                record |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            tick += (int) (record >>> INPUT_BITS);
+            replay.addChange(tick, (int) record & INPUT_MASK);
+        }
+        // Not closed by the recorder, e.g. after a crash: play up to the last change
+        if (replay.tickCount < 0) {
+            replay.tickCount = tick;
+        }
+        return replay;
+    }
+
+    private void addChange(int tick, int input) {
+        if (changeCount == changeTicks.length) {
+            changeTicks = Arrays.copyOf(changeTicks, changeCount * 2);
+            changeInputs = Arrays.copyOf(changeInputs, changeCount * 2);
+        }
+        changeTicks[changeCount] = tick;
+        changeInputs[changeCount] = (byte) input;
+        changeCount++;
+    }
+
+    /**
+     * The most recent replay in a directory, or null if there is none.
+     */
+    public static Path findLatest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        Path latest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*." + EXTENSION)) {
+            for (Path file : files) {
+                if (latest == null || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(latest)) > 0) {
+                    latest = file;
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * CRC32 of the tiles, so a replay is not played on a map that changed since.
+     */
+    public static int checksum(TileMap tileMap) {
+        CRC32 crc = new CRC32();
+        crc.update(tileMap.getTiles());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Whether the map is the one the replay was recorded on.
+     */
+    public boolean matches(TileMap tileMap) {
+        return tileMap.getWidth() == width && tileMap.getHeight() == height && checksum(tileMap) == checksum;
+    }
+
+    /**
+     * Runs the whole replay without rendering.
+     *
+     * @return the engine after the last tick
+     */
+    public MazeEngine simulate(TileMap tileMap) {
+        ReplayPlayer player = new ReplayPlayer(this, tileMap);
+        while (player.step()) {
+            // Runs until the input ends or the level is won or lost
+        }
+        return player.getEngine();
+    }
+
+    int getChangeCount() {
+        return changeCount;
+    }
+
+    int getChangeTick(int index) {
+        return changeTicks[index];
+    }
+
+    int getChangeInput(int index) {
+        return changeInputs[index];
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * The seed of a generated level, 0 for levels loaded from a file.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The map file the replay was recorded on, or {@link #GENERATED} and the size for a generated maze.
+     */
+    public String getLevel() {
+        return level;
+    }
+
+    public boolean isGenerated() {
+        return level.startsWith(GENERATED);
+    }
+}
@@ -0,0 +1,89 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Plays a {@link Replay} on its own {@link MazeEngine}, one tick at a time, with the recorded input.
+ * Seeking forward runs the ticks in between without rendering; seeking back starts a new engine and runs
+ * up to the target, which is quick because a tick without rendering takes microseconds.
+ */
+public class ReplayPlayer {
+    private final Replay replay;
+    private final TileMap tileMap;
+    private final float tickSeconds;
+    private MazeEngine engine;
+    private int tick;
+    // The next input change to apply
+    private int change;
+
+    /**
+     * @throws IllegalArgumentException if the replay was recorded on another map
+     */
+    public ReplayPlayer(Replay replay, TileMap tileMap) {
+        if (!replay.matches(tileMap)) {
+            throw new IllegalArgumentException("The replay was recorded on a different map than " + replay.getLevel());
+        }
+        this.replay = replay;
+        this.tileMap = tileMap;
+        tickSeconds = 1f / replay.getTickRate();
+        engine = new MazeEngine(tileMap);
+    }
+
+    /**
+     * Runs the next tick with its recorded input.
+     *
+     * @return false, without running a tick, once the replay is finished
+     */
+    public boolean step() {
+        if (isFinished()) {
+            return false;
+        }
+        while (change < replay.getChangeCount() && replay.getChangeTick(change) <= tick) {
+            engine.setInput(replay.getChangeInput(change));
+            change++;
+        }
+        engine.tick(tickSeconds);
+        tick++;
+        return true;
+    }
+
+    /**
+     * Moves to a tick, clamped to the replay.
+     *
+     * @return true if a new engine was started, so anything attached to the old one has to be set up again
+     */
+    public boolean seek(int target) {
+        target = Math.max(0, Math.min(target, replay.getTickCount()));
+        boolean restarted = false;
+        if (target < tick) {
+            engine = new MazeEngine(tileMap);
+            tick = 0;
+            change = 0;
+            restarted = true;
+        }
+        while (tick < target && step()) {
+            // Catches up without rendering
+        }
+        return restarted;
+    }
+
+    /**
+     * Whether all recorded input was played or the level was won or lost.
+     */
+    public boolean isFinished() {
+        return tick >= replay.getTickCount() || engine.getState() != MazeEngine.State.PLAYING;
+    }
+
+    public MazeEngine getEngine() {
+        return engine;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Ticks played so far.
+     */
+    public int getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,140 @@
+package de.tum.cit.ase.maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a {@link Replay} while a level is played: the level, the seed it was generated with, and the player's
+ * input. Only changes of the input are stored, each as one varint holding the ticks since the previous change and
+ * the new input bits, so an hour of play takes a few KB. Records collect in one direct buffer that is written to a
+ * file channel when full, so {@link #record} does not allocate. The tick count in the header is filled in on close.
+ */
+public class ReplayRecorder implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    // Longest varint of a long
+    private static final int MAX_RECORD_BYTES = 10;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private int tick, lastChangeTick, lastInput;
+    private long bytesWritten;
+
+    /**
+     * Creates the file and writes the header.
+     *
+     * @param level    where the level came from, see {@link Replay#getLevel()}
+     * @param seed     the seed of a generated level, otherwise 0
+     * @param tickRate simulation ticks per second
+     */
+    public ReplayRecorder(Path file, String level, long seed, TileMap tileMap, int tickRate) throws IOException {
+        byte[] name = level.getBytes(StandardCharsets.UTF_8);
+        if (name.length > Replay.MAX_LEVEL_BYTES) {
+            throw new IllegalArgumentException("Level name too long: " + level);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        buffer.putInt(Replay.MAGIC);
+        buffer.put(Replay.VERSION);
+        buffer.putInt(tickRate);
+        // The tick count, written on close; a replay that was never closed ends at its last input change
+        buffer.putInt(-1);
+        buffer.putLong(seed);
+        buffer.putInt(tileMap.getWidth());
+        buffer.putInt(tileMap.getHeight());
+        buffer.putInt(Replay.checksum(tileMap));
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+    }
+
+    /**
+     * Deletes the oldest replays in a directory so that, with one more, at most {@code keep} remain,
+     * and returns a new file name for the next one. Creates the directory if needed.
+     */
+    public static Path nextFile(Path directory, int keep) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> replays = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*." + Replay.EXTENSION)) {
+            for (Path file : files) {
+                replays.add(file);
+            }
+        }
+        // The names hold the start time, so they sort oldest first
+        replays.sort(null);
+        for (int i = 0; i < replays.size() - keep + 1; i++) {
+            Files.deleteIfExists(replays.get(i));
+        }
+        return directory.resolve("replay-" + System.currentTimeMillis() + "." + Replay.EXTENSION);
+    }
+
+    /**
+     * Records the input of the tick about to run. Call it once per tick, before the engine's tick.
+     *
+     * @param input the {@code MazeEngine.INPUT_} bits held down
+     */
+    public void record(int input) throws IOException {
+        input &= Replay.INPUT_MASK;
+        if (input != lastInput) {
+            if (buffer.remaining() < MAX_RECORD_BYTES) {
+                flush();
+            }
+            long record = (long) (tick - lastChangeTick) << Replay.INPUT_BITS | input;
+            while ((record & ~0x7FL) != 0) {
+                buffer.put((byte) (record & 0x7F | 0x80));
+                record >>>= 7;
+            }
+            buffer.put((byte) record);
+            lastInput = input;
+            lastChangeTick = tick;
+        }
+        tick++;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Ticks recorded so far.
+     */
+    public int getTicks() {
+        return tick;
+    }
+
+    /**
+     * Size of the replay so far, including what is still buffered.
+     */
+    public long getBytes() {
+        return bytesWritten + buffer.position();
+    }
+
+    /**
+     * Writes the rest of the input and the tick count, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+            buffer.putInt(tick).flip();
+            channel.write(buffer, Replay.TICK_COUNT_OFFSET);
+            buffer.clear();
+        } finally {
+            channel.close();
+        }
+    }
+}
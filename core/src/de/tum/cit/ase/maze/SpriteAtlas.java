@@ -0,0 +1,155 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * All world sprites packed into a single texture, looked up by name.
+ * The atlas is produced by {@link SpritePacker} at build time; if it is missing,
+ * the same sprites are packed in memory from the source sheets at startup.
+ */
+public class SpriteAtlas implements Disposable {
+    public static final String ATLAS_FILE = "sprites.atlas";
+
+    public static final String WALL = "wall";
+    public static final String ENTRY = "entry";
+    public static final String EXIT = "exit";
+    public static final String TRAP = "trap";
+    public static final String KEY = "key";
+    public static final String ENEMY = "enemy";
+    public static final String CHARACTER_DOWN = "character-down";
+    /** A plain white square, tinted with the batch colour to draw solid quads without another texture bind. */
+    public static final String WHITE = "white";
+
+    /**
+     * Where each sprite comes from: name, frame index (-1 for single sprites), sheet and region in the sheet.
+     */
+    static final Sprite[] SPRITES = {
+            new Sprite(WALL, -1, "basictiles.png", 0, 0, 16, 16),
+            new Sprite(KEY, -1, "basictiles.png", 6 * 16, 3 * 16, 16, 6),
+            new Sprite(ENTRY, -1, "basictiles.png", 2 * 16, 6 * 16, 16, 16),
+            new Sprite(EXIT, -1, "basictiles.png", 0, 6 * 16, 16, 16),
+            new Sprite(TRAP, -1, "basictiles.png", 2 * 16, 9 * 16, 16, 16),
+            new Sprite(ENEMY, -1, "mobs.png", 4 * 16, 5 * 16, 16, 16),
+            new Sprite(CHARACTER_DOWN, 0, "character.png", 0, 0, 16, 32),
+            new Sprite(CHARACTER_DOWN, 1, "character.png", 16, 0, 16, 32),
+            new Sprite(CHARACTER_DOWN, 2, "character.png", 32, 0, 16, 32),
+            new Sprite(CHARACTER_DOWN, 3, "character.png", 48, 0, 16, 32),
+    };
+
+    private final TextureAtlas atlas;
+    private final AssetCache assets;
+
+    /**
+     * Borrows the packed atlas from the asset cache, or packs the sprites now if it does not exist.
+     */
+    public SpriteAtlas(AssetCache assets) {
+        FileHandle atlasFile = Gdx.files.internal(ATLAS_FILE);
+        if (atlasFile.exists()) {
+            this.assets = assets;
+            atlas = assets.acquire(ATLAS_FILE, TextureAtlas.class);
+        } else {
+            this.assets = null;
+            PixmapPacker packer = pack(Gdx.files.internal(""));
+            atlas = packer.generateTextureAtlas(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest, false);
+            packer.dispose();
+        }
+    }
+
+    /**
+     * Copies every sprite out of its source sheet into one packed page.
+     *
+     * @param sheetDirectory directory containing the source sheets
+     */
+    static PixmapPacker pack(FileHandle sheetDirectory) {
+        PixmapPacker packer = new PixmapPacker(256, 256, Pixmap.Format.RGBA8888, 2, false);
+        String loadedSheet = null;
+        Pixmap sheet = null;
+        for (Sprite sprite : SPRITES) {
+            if (!sprite.sheet.equals(loadedSheet)) {
+                if (sheet != null) {
+                    sheet.dispose();
+                }
+                sheet = new Pixmap(sheetDirectory.child(sprite.sheet));
+                loadedSheet = sprite.sheet;
+            }
+            Pixmap region = new Pixmap(sprite.width, sprite.height, Pixmap.Format.RGBA8888);
+            region.setBlending(Pixmap.Blending.None);
+            region.drawPixmap(sheet, 0, 0, sprite.x, sprite.y, sprite.width, sprite.height);
+            packer.pack(sprite.index < 0 ? sprite.name : sprite.name + "_" + sprite.index, region);
+            region.dispose();
+        }
+        if (sheet != null) {
+            sheet.dispose();
+        }
+        Pixmap white = new Pixmap(4, 4, Pixmap.Format.RGBA8888);
+        white.setColor(1, 1, 1, 1);
+        white.fill();
+        packer.pack(WHITE, white);
+        white.dispose();
+        return packer;
+    }
+
+    public TextureRegion findRegion(String name) {
+        TextureRegion region = atlas.findRegion(name);
+        if (region == null) {
+            throw new GdxRuntimeException("Sprite not found in atlas: " + name);
+        }
+        return region;
+    }
+
+    /**
+     * Returns the frames of an animated sprite in order.
+     */
+    public Array<TextureRegion> findFrames(String name) {
+        Array<TextureRegion> frames = new Array<>(TextureRegion.class);
+        for (int index = 0; ; index++) {
+            TextureRegion frame = atlas.findRegion(name, index);
+            if (frame == null) {
+                frame = atlas.findRegion(name + "_" + index);
+            }
+            if (frame == null) {
+                break;
+            }
+            frames.add(frame);
+        }
+        if (frames.isEmpty()) {
+            throw new GdxRuntimeException("Sprite not found in atlas: " + name);
+        }
+        return frames;
+    }
+
+    @Override
+    public void dispose() {
+        if (assets != null) {
+            assets.release(ATLAS_FILE);
+        } else {
+            atlas.dispose();
+        }
+    }
+
+    static class Sprite {
+        final String name;
+        final int index;
+        final String sheet;
+        final int x, y, width, height;
+
+        Sprite(String name, int index, String sheet, int x, int y, int width, int height) {
+            this.name = name;
+            this.index = index;
+            this.sheet = sheet;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
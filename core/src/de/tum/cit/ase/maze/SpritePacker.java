@@ -0,0 +1,28 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.PixmapPackerIO;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Build step that packs the world sprites listed in {@link SpriteAtlas} into
+ * {@code sprites.atlas} and its page image, next to the source sheets.
+ * Needs the desktop natives on the classpath, see the {@code packSprites} task.
+ */
+public class SpritePacker {
+
+    public static void main(String[] args) throws IOException {
+        GdxNativesLoader.load();
+        FileHandle assets = new FileHandle(new File(args.length > 0 ? args[0] : "assets"));
+        PixmapPacker packer = SpriteAtlas.pack(assets);
+        PixmapPackerIO.SaveParameters parameters = new PixmapPackerIO.SaveParameters();
+        parameters.useIndexes = true;
+        new PixmapPackerIO().save(assets.child(SpriteAtlas.ATLAS_FILE), packer, parameters);
+        packer.dispose();
+        System.out.println("Packed " + SpriteAtlas.SPRITES.length + " sprites into " + assets.child(SpriteAtlas.ATLAS_FILE));
+    }
+}
@@ -0,0 +1,141 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.Arrays;
+
+/**
+ * Tiles that never move (walls, entries, exits), baked once per level into a {@link SpriteCache}.
+ * Every chunk of {@link ChunkGrid#CHUNK_TILES} tiles gets its own cache,
+ * so a frame costs one draw call per visible chunk and no vertex uploads.
+ * The chunks are baked by {@link #build}, which can be spread over several frames.
+ */
+public class StaticTileLayer implements Disposable {
+    // SpriteCache can only use an index buffer up to this many sprites
+    private static final int MAX_INDEXED_SPRITES = 8191;
+
+    private final SpriteCache cache;
+    private final int chunksX, chunksY;
+    private final int[] cacheIds;
+    private final int[] chunkSizes;
+    private final int size;
+    private final TileMap tileMap;
+    private final TextureRegion[] regions;
+    private int chunksBuilt;
+
+    /**
+     * @param regions region for every static tile value, indexed by tile value; null for tiles that are not static
+     */
+    public StaticTileLayer(TileMap tileMap, TextureRegion[] regions) {
+        int width = tileMap.getWidth();
+        int height = tileMap.getHeight();
+        chunksX = (width + ChunkGrid.CHUNK_TILES - 1) / ChunkGrid.CHUNK_TILES;
+        chunksY = (height + ChunkGrid.CHUNK_TILES - 1) / ChunkGrid.CHUNK_TILES;
+
+        int count = 0;
+        byte[] tiles = tileMap.getTiles();
+        for (byte tile : tiles) {
+            if (regionFor(regions, tile) != null) {
+                count++;
+            }
+        }
+        size = count;
+
+        this.tileMap = tileMap;
+        this.regions = regions;
+        int capacity = Math.max(1, size);
+        cache = new SpriteCache(capacity, capacity <= MAX_INDEXED_SPRITES);
+        cacheIds = new int[chunksX * chunksY];
+        chunkSizes = new int[chunksX * chunksY];
+        Arrays.fill(cacheIds, -1);
+    }
+
+    /**
+     * Bakes up to {@code maxChunks} more chunks, so a large level can be built over several frames.
+     * Chunks that are not built yet are simply not drawn.
+     *
+     * @return true once every chunk is built
+     */
+    public boolean build(int maxChunks) {
+        int end = Math.min(chunksBuilt + maxChunks, cacheIds.length);
+        for (; chunksBuilt < end; chunksBuilt++) {
+            cacheIds[chunksBuilt] = buildChunk(chunksBuilt % chunksX, chunksBuilt / chunksX, chunksBuilt);
+        }
+        return isBuilt();
+    }
+
+    public boolean isBuilt() {
+        return chunksBuilt == cacheIds.length;
+    }
+
+    /**
+     * Fraction of chunks built so far, between 0 and 1.
+     */
+    public float getBuildProgress() {
+        return (float) chunksBuilt / cacheIds.length;
+    }
+
+    // Adds the static tiles of one chunk to the cache and returns the cache id, or -1 if the chunk has none
+    private int buildChunk(int chunkX, int chunkY, int index) {
+        int startX = chunkX * ChunkGrid.CHUNK_TILES;
+        int startY = chunkY * ChunkGrid.CHUNK_TILES;
+        int endX = Math.min(startX + ChunkGrid.CHUNK_TILES, tileMap.getWidth());
+        int endY = Math.min(startY + ChunkGrid.CHUNK_TILES, tileMap.getHeight());
+        boolean started = false;
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                TextureRegion region = regionFor(regions, tileMap.get(x, y));
+                if (region == null) {
+                    continue;
+                }
+                if (!started) {
+                    cache.beginCache();
+                    started = true;
+                }
+                cache.add(region, x * GameObject.TILE_SIZE, y * GameObject.TILE_SIZE);
+                chunkSizes[index]++;
+            }
+        }
+        return started ? cache.endCache() : -1;
+    }
+
+    private static TextureRegion regionFor(TextureRegion[] regions, int tile) {
+        tile &= 0xFF;
+        return tile < regions.length ? regions[tile] : null;
+    }
+
+    /**
+     * Draws the chunks in the given inclusive chunk range, typically the one selected in a {@link ChunkGrid}.
+     * Must be called outside of a SpriteBatch begin/end pair.
+     *
+     * @return the number of tiles drawn
+     */
+    public int draw(Matrix4 projection, int minChunkX, int minChunkY, int maxChunkX, int maxChunkY) {
+        int drawn = 0;
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        for (int chunkY = minChunkY; chunkY <= Math.min(maxChunkY, chunksY - 1); chunkY++) {
+            for (int chunkX = minChunkX; chunkX <= Math.min(maxChunkX, chunksX - 1); chunkX++) {
+                int index = chunkY * chunksX + chunkX;
+                if (cacheIds[index] >= 0) {
+                    cache.draw(cacheIds[index]);
+                    drawn += chunkSizes[index];
+                }
+            }
+        }
+        cache.end();
+        return drawn;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void dispose() {
+        cache.dispose();
+    }
+}
@@ -0,0 +1,139 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Moves axis-aligned boxes through the tile grid without letting them enter solid tiles.
+ * A move is swept one axis at a time: every tile column (or row) between the start and the end is
+ * checked, so fast boxes cannot tunnel through walls, and only the tiles along the box's edge are read.
+ * The result is kept in this object instead of new vectors, so moving allocates nothing.
+ * Positions and sizes are in tiles; a box's position is its bottom-left corner.
+ */
+public class TileCollider {
+    /**
+     * Tells which tiles block movement.
+     */
+    public interface Solidity {
+        boolean isSolid(int tileX, int tileY);
+    }
+
+    // Keeps box edges that touch a tile border out of the neighbouring tile
+    private static final float EPSILON = 1e-4f;
+
+    private final Solidity solidity;
+    private float x, y;
+    private boolean hitX, hitY;
+
+    public TileCollider(Solidity solidity) {
+        this.solidity = solidity;
+    }
+
+    /**
+     * Moves a box by (dx, dy), first along x, then along y, stopping each axis at the first solid tile.
+     * Read the result with {@link #getX()}, {@link #getY()}, {@link #hitX()} and {@link #hitY()}.
+     */
+    public void move(float x, float y, float width, float height, float dx, float dy) {
+        hitX = false;
+        hitY = false;
+        this.x = sweepX(x, y, width, height, dx);
+        this.y = sweepY(this.x, y, width, height, dy);
+    }
+
+    private float sweepX(float x, float y, float width, float height, float dx) {
+        if (dx == 0) {
+            return x;
+        }
+        int bottom = (int) Math.floor(y);
+        int top = (int) Math.floor(y + height - EPSILON);
+        if (dx > 0) {
+            int last = (int) Math.floor(x + dx + width - EPSILON);
+            for (int column = (int) Math.floor(x + width - EPSILON) + 1; column <= last; column++) {
+                if (blocked(column, bottom, top, true)) {
+                    hitX = true;
+                    return column - width;
+                }
+            }
+        } else {
+            int last = (int) Math.floor(x + dx);
+            for (int column = (int) Math.floor(x) - 1; column >= last; column--) {
+                if (blocked(column, bottom, top, true)) {
+                    hitX = true;
+                    return column + 1;
+                }
+            }
+        }
+        return x + dx;
+    }
+
+    private float sweepY(float x, float y, float width, float height, float dy) {
+        if (dy == 0) {
+            return y;
+        }
+        int left = (int) Math.floor(x);
+        int right = (int) Math.floor(x + width - EPSILON);
+        if (dy > 0) {
+            int last = (int) Math.floor(y + dy + height - EPSILON);
+            for (int row = (int) Math.floor(y + height - EPSILON) + 1; row <= last; row++) {
+                if (blocked(row, left, right, false)) {
+                    hitY = true;
+                    return row - height;
+                }
+            }
+        } else {
+            int last = (int) Math.floor(y + dy);
+            for (int row = (int) Math.floor(y) - 1; row >= last; row--) {
+                if (blocked(row, left, right, false)) {
+                    hitY = true;
+                    return row + 1;
+                }
+            }
+        }
+        return y + dy;
+    }
+
+    // Whether any tile of a column (or row) between two indices is solid
+    private boolean blocked(int line, int from, int to, boolean column) {
+        for (int i = from; i <= to; i++) {
+            if (column ? solidity.isSolid(line, i) : solidity.isSolid(i, line)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a box overlaps any solid tile.
+     */
+    public boolean overlaps(float x, float y, float width, float height) {
+        int left = (int) Math.floor(x);
+        int right = (int) Math.floor(x + width - EPSILON);
+        int bottom = (int) Math.floor(y);
+        int top = (int) Math.floor(y + height - EPSILON);
+        for (int column = left; column <= right; column++) {
+            if (blocked(column, bottom, top, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Whether the last move was stopped along x.
+     */
+    public boolean hitX() {
+        return hitX;
+    }
+
+    /**
+     * Whether the last move was stopped along y.
+     */
+    public boolean hitY() {
+        return hitY;
+    }
+}
@@ -0,0 +1,75 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * The maze grid, stored as one flat byte array with one byte per tile, row by row.
+ * This is the same layout as the tiles of a {@code .maze} file, so binary maps are copied in as is.
+ */
+public class TileMap {
+    public static final int WALL = 0;
+    public static final int ENTRY = 1;
+    public static final int EXIT = 2;
+    public static final int TRAP = 3;
+    public static final int ENEMY = 4;
+    public static final int KEY = 5;
+    /** Value of every tile that is not listed in a map file. */
+    public static final int EMPTY = 7;
+
+    private final int width, height;
+    private final byte[] tiles;
+
+    public TileMap(int width, int height) {
+        this(width, height, new byte[width * height]);
+        Arrays.fill(tiles, (byte) EMPTY);
+    }
+
+    /**
+     * Wraps existing tile data without copying it.
+     *
+     * @param tiles {@code width * height} tiles, index {@code y * width + x}
+     */
+    public TileMap(int width, int height, byte[] tiles) {
+        if (width <= 0 || height <= 0 || tiles.length != width * height) {
+            throw new IllegalArgumentException("Invalid tile map size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.tiles = tiles;
+    }
+
+    public int get(int x, int y) {
+        return tiles[y * width + x] & 0xFF;
+    }
+
+    public void set(int x, int y, int tile) {
+        tiles[y * width + x] = (byte) tile;
+    }
+
+    /**
+     * Whether enemies and searches can walk on a tile. Walls, entries and exits are blocked;
+     * the exit only opens for the player once a key is collected, see {@link MazeEngine#isSolid}.
+     */
+    public static boolean isWalkable(int tile) {
+        return tile != WALL && tile != ENTRY && tile != EXIT;
+    }
+
+    public boolean isInside(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The backing array, index {@code y * width + x}. Changes write through to the map.
+     */
+    public byte[] getTiles() {
+        return tiles;
+    }
+}
@@ -0,0 +1,78 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Bit set of the tiles that do something when the player touches them: traps, keys and the exit.
+ * A query only reads the bits of the few tiles under a box, so its cost does not depend on
+ * the map size or on how many triggers there are.
+ */
+public class TriggerIndex {
+    private final int width, height;
+    private final long[] bits;
+    private int size;
+
+    public TriggerIndex(TileMap tileMap) {
+        width = tileMap.getWidth();
+        height = tileMap.getHeight();
+        bits = new long[(width * height + 63) / 64];
+        byte[] tiles = tileMap.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            if (isTrigger(tiles[i] & 0xFF)) {
+                bits[i >>> 6] |= 1L << i;
+                size++;
+            }
+        }
+    }
+
+    public static boolean isTrigger(int tile) {
+        return tile == TileMap.TRAP || tile == TileMap.KEY || tile == TileMap.EXIT;
+    }
+
+    public boolean contains(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        int index = y * width + x;
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * Removes a trigger, e.g. a collected key.
+     */
+    public void remove(int x, int y) {
+        if (contains(x, y)) {
+            int index = y * width + x;
+            bits[index >>> 6] &= ~(1L << index);
+            size--;
+        }
+    }
+
+    /**
+     * Finds the triggers under a box given in tiles.
+     *
+     * @param out receives the triggers as {@code y * width + x}; a box smaller than a tile covers at most 4
+     * @return how many triggers were written to {@code out}
+     */
+    public int query(float x, float y, float boxWidth, float boxHeight, int[] out) {
+        int left = Math.max(0, (int) Math.floor(x));
+        int right = Math.min(width - 1, (int) Math.floor(x + boxWidth - 1e-4f));
+        int bottom = Math.max(0, (int) Math.floor(y));
+        int top = Math.min(height - 1, (int) Math.floor(y + boxHeight - 1e-4f));
+        int count = 0;
+        for (int row = bottom; row <= top; row++) {
+            for (int column = left; column <= right; column++) {
+                int index = row * width + column;
+                if ((bits[index >>> 6] & 1L << index) != 0 && count < out.length) {
+                    out[count++] = index;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of triggers left.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -1,10 +0,0 @@
-package de.tum.cit.ase.maze;
-
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
-
-public class Wall extends GameObject {
-    public Wall(TextureRegion region, float x, float y) {
-        super(region, x, y);
-    }
-    // Other specific methods...
-}
\ No newline at end of file